@@ -28,10 +28,13 @@ import {
   fetchAllMunicipalities,
   fetchVillages,
 } from '../services/locations'
+import { logout } from '../services/authentication'
 
 const CitizenDashboard = () => {
   const navigate = useNavigate()
   const [bookings, setBookings] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [districts, setDistricts] = useState([])
   const [municipalities, setMunicipalities] = useState([])
   const [filteredMunicipalities, setFilteredMunicipalities] = useState([])
@@ -58,13 +61,18 @@ const CitizenDashboard = () => {
     loadMunicipalities()
   }, [])
 
-  const fetchBookings = async () => {
+  // without a cursor the list starts over from the first page
+  const fetchBookings = async (cursor) => {
+    if (cursor) setLoadingMore(true)
     try {
-      const data = await getMyBookings()
-      setBookings(data)
+      const page = await getMyBookings(cursor)
+      setBookings((loaded) => (cursor ? [...loaded, ...page.items] : page.items))
+      setNextCursor(page.nextCursor)
     } catch (err) {
       console.error('Error fetching bookings:', err)
       if (err.response?.status === 403) navigate('/login')
+    } finally {
+      setLoadingMore(false)
     }
   }
 
@@ -210,6 +218,10 @@ const CitizenDashboard = () => {
   }
 
   const handleLogout = () => {
+    const token = localStorage.getItem('token')
+    if (token) {
+      logout(token).catch((err) => console.error('Error revoking token:', err))
+    }
     localStorage.removeItem('token')
     localStorage.removeItem('role')
     localStorage.removeItem('districts')
@@ -338,6 +350,18 @@ const CitizenDashboard = () => {
                 ))}
               </TableBody>
             </Table>
+            {nextCursor && (
+              <Box sx={{ textAlign: 'center', mt: 2 }}>
+                <Button
+                  id="my-bookings-load-more"
+                  variant="outlined"
+                  onClick={() => fetchBookings(nextCursor)}
+                  disabled={loadingMore}
+                >
+                  {loadingMore ? 'Loading...' : 'Load more'}
+                </Button>
+              </Box>
+            )}
           </Box>
         )}
       </Paper>
@@ -44,11 +44,13 @@ import {
   getBookingsByDistrict,
 } from '../services/bookings'
 import { fetchDistrict, fetchAllMunicipalities } from '../services/locations'
+import { logout } from '../services/authentication'
 
 const StaffDashboard = () => {
   const navigate = useNavigate()
   const [bookings, setBookings] = useState([])
-  const [filteredBookings, setFilteredBookings] = useState([])
+  const [nextCursor, setNextCursor] = useState(null)
+  const [loadingMore, setLoadingMore] = useState(false)
   const [municipalities, setMunicipalities] = useState([])
   const [districts, setDistricts] = useState([])
   const [selectedDistrict, setSelectedDistrict] = useState('')
@@ -70,7 +72,6 @@ const StaffDashboard = () => {
       return
     }
 
-    fetchAllBookings()
     loadDistricts()
     loadMunicipalities()
   }, [navigate])
@@ -107,55 +108,48 @@ const StaffDashboard = () => {
     }
   }
 
-  const fetchAllBookings = async () => {
-    setLoading(true)
-    try {
-      const data = await getAllBookings()
-      setBookings(data)
-      setFilteredBookings(data)
-    } catch (err) {
-      console.error('Error fetching bookings:', err)
-      setError('Failed to load bookings')
-      if (err.response?.status === 401) navigate('/login')
-    } finally {
-      setLoading(false)
+  const fetchPage = (cursor) => {
+    if (selectedMunicipality) {
+      return getBookingsByMunicipality(selectedMunicipality, cursor)
+    }
+    if (selectedDistrict) {
+      return getBookingsByDistrict(selectedDistrict, cursor)
     }
+    return getAllBookings(cursor)
   }
 
-  const applyFilters = async () => {
+  // without a cursor the list starts over from the first page of the current filters
+  const fetchBookings = async (cursor) => {
+    if (cursor) setLoadingMore(true)
+    else setLoading(true)
     try {
-      let data = bookings
-
-      if (selectedDistrict) {
-        const districtData = await getBookingsByDistrict(selectedDistrict)
-        data = districtData
-      }
-
-      if (selectedMunicipality) {
-        const muniData = await getBookingsByMunicipality(selectedMunicipality)
-        data = selectedDistrict
-          ? muniData.filter(
+      const page = await fetchPage(cursor)
+      const items =
+        selectedMunicipality && selectedDistrict
+          ? page.items.filter(
               (b) =>
                 b.district?.toLowerCase() === selectedDistrict.toLowerCase(),
             )
-          : muniData
-      }
-
-      setFilteredBookings(data)
+          : page.items
+      setBookings((loaded) => (cursor ? [...loaded, ...items] : items))
+      setNextCursor(page.nextCursor)
     } catch (err) {
-      console.error('Error applying filters:', err)
-      setError('Failed to apply filters')
+      console.error('Error fetching bookings:', err)
+      setError('Failed to load bookings')
+      if (err.response?.status === 401) navigate('/login')
+    } finally {
+      setLoading(false)
+      setLoadingMore(false)
     }
   }
 
   useEffect(() => {
-    applyFilters()
-  }, [bookings, selectedDistrict, selectedMunicipality])
+    if (localStorage.getItem('role') === 'STAFF') fetchBookings()
+  }, [selectedDistrict, selectedMunicipality])
 
   const clearFilters = () => {
     setSelectedDistrict('')
     setSelectedMunicipality('')
-    setFilteredBookings(bookings)
   }
 
   const handleViewDetails = async (booking) => {
@@ -187,7 +181,7 @@ const StaffDashboard = () => {
       await updateBookingState(selectedBooking.id, newState)
       setSuccess('Booking state updated successfully!')
       setStateDialogOpen(false)
-      fetchAllBookings()
+      fetchBookings()
     } catch (err) {
       console.error('Error updating state:', err)
       setError(
@@ -223,6 +217,10 @@ const StaffDashboard = () => {
   }
 
   const handleLogout = () => {
+    const token = localStorage.getItem('token')
+    if (token) {
+      logout(token).catch((err) => console.error('Error revoking token:', err))
+    }
     localStorage.removeItem('token')
     localStorage.removeItem('role')
     localStorage.removeItem('districts')
@@ -341,7 +339,7 @@ const StaffDashboard = () => {
           <Button
             variant="outlined"
             startIcon={<Refresh />}
-            onClick={fetchAllBookings}
+            onClick={() => fetchBookings()}
           >
             Refresh
           </Button>
@@ -351,14 +349,15 @@ const StaffDashboard = () => {
       {/* Bookings Table */}
       <Paper sx={{ p: 3 }}>
         <Typography variant="h5" gutterBottom>
-          All Bookings ({filteredBookings.length})
+          All Bookings ({bookings.length}
+          {nextCursor ? '+' : ''})
         </Typography>
 
         {loading ? (
           <Box sx={{ textAlign: 'center', py: 4 }}>
             <Typography>Loading...</Typography>
           </Box>
-        ) : filteredBookings.length === 0 ? (
+        ) : bookings.length === 0 ? (
           <Typography
             color="text.secondary"
             sx={{ py: 4, textAlign: 'center' }}
@@ -382,7 +381,7 @@ const StaffDashboard = () => {
                 </TableRow>
               </TableHead>
               <TableBody>
-                {filteredBookings.map((booking, index) => (
+                {bookings.map((booking, index) => (
                   <TableRow key={booking.id}>
                     <TableCell>{booking.id}</TableCell>
                     <TableCell>{booking.district || '-'}</TableCell>
@@ -429,6 +428,18 @@ const StaffDashboard = () => {
                 ))}
               </TableBody>
             </Table>
+            {nextCursor && (
+              <Box sx={{ textAlign: 'center', mt: 2 }}>
+                <Button
+                  id="bookings-load-more"
+                  variant="outlined"
+                  onClick={() => fetchBookings(nextCursor)}
+                  disabled={loadingMore}
+                >
+                  {loadingMore ? 'Loading...' : 'Load more'}
+                </Button>
+              </Box>
+            )}
           </Box>
         )}
       </Paper>
@@ -13,3 +13,9 @@ export const login = async (data) => {
   const response = await axios.post(`${API_URL}/login`, data)
   return response.data
 }
+
+export const logout = async (token) => {
+  await axios.post(`${API_URL}/logout`, null, {
+    headers: { Authorization: `Bearer ${token}` },
+  })
+}
@@ -23,13 +23,17 @@ export const createBooking = async (bookingRequest) => {
   return res.data
 }
 
-export const getMyBookings = async () => {
-  const res = await axios.get(`${BASE_URL}/me`, {
+// list endpoints are paged; pass nextCursor back to load the following page (null on the last one)
+const getPage = async (url, cursor) => {
+  const res = await axios.get(url, {
     headers: getAuthHeaders(),
+    params: { cursor },
   })
-  return res.data
+  return { items: res.data, nextCursor: res.headers['x-next-cursor'] || null }
 }
 
+export const getMyBookings = async (cursor) => getPage(`${BASE_URL}/me`, cursor)
+
 export const cancelBooking = async (id) => {
   const res = await axios.delete(`${BASE_URL}/${id}`, {
     headers: getAuthHeaders(),
@@ -45,12 +49,7 @@ export const getAvailableTimes = async (municipality, date) => {
   return res.data
 }
 
-export const getAllBookings = async () => {
-  const res = await axios.get(BASE_URL, {
-    headers: getAuthHeaders(),
-  })
-  return res.data
-}
+export const getAllBookings = async (cursor) => getPage(BASE_URL, cursor)
 
 export const getBookingDetails = async (id) => {
   const res = await axios.get(`${BASE_URL}/${id}`, {
@@ -75,16 +74,8 @@ export const getBookingHistory = async (id) => {
   return res.data
 }
 
-export const getBookingsByMunicipality = async (municipality) => {
-  const res = await axios.get(`${BASE_URL}/municipality/${municipality}`, {
-    headers: getAuthHeaders(),
-  })
-  return res.data
-}
+export const getBookingsByMunicipality = async (municipality, cursor) =>
+  getPage(`${BASE_URL}/municipality/${municipality}`, cursor)
 
-export const getBookingsByDistrict = async (district) => {
-  const res = await axios.get(`${BASE_URL}/district/${district}`, {
-    headers: getAuthHeaders(),
-  })
-  return res.data
-}
+export const getBookingsByDistrict = async (district, cursor) =>
+  getPage(`${BASE_URL}/district/${district}`, cursor)
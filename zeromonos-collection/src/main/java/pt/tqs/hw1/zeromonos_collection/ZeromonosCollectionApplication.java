@@ -2,8 +2,10 @@ package pt.tqs.hw1.zeromonos_collection;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class ZeromonosCollectionApplication {
 
 	public static void main(String[] args) {
@@ -0,0 +1,33 @@
+package pt.tqs.hw1.zeromonos_collection.auth;
+
+import java.security.Principal;
+import java.util.Date;
+import java.util.List;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable view of a JWT whose signature and expiry were already verified.
+ * Built once per request so callers never need to parse the token again.
+ * In stateless mode it is also the request principal.
+ */
+@Value
+@Builder
+public class ParsedToken implements Principal {
+    String id;
+    String subject;
+    Integer userId;
+    List<String> roles;
+    Date issuedAt;
+    Date expiration;
+
+    @Override
+    public String getName() {
+        return subject;
+    }
+
+    public boolean isExpired() {
+        return expiration != null && expiration.before(new Date());
+    }
+}
@@ -1,16 +1,19 @@
 package pt.tqs.hw1.zeromonos_collection.configs;
 
+import java.time.Duration;
+
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.AuthenticationProvider;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
 import org.springframework.security.config.annotation.authentication.configuration.AuthenticationConfiguration;
-import org.springframework.security.core.userdetails.UserDetailsService;
-import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
 import lombok.RequiredArgsConstructor;
 import pt.tqs.hw1.zeromonos_collection.repository.UserRepository;
 
@@ -19,11 +22,30 @@ import pt.tqs.hw1.zeromonos_collection.repository.UserRepository;
 public class ApplicationConfig {
 
     private final UserRepository userRepository;
+    private final MeterRegistry meterRegistry;
+
+    @Value("${users.cache.ttl:5m}")
+    private Duration userCacheTtl;
+
+    @Value("${users.cache.max-size:10000}")
+    private long userCacheMaxSize;
+
+    @Value("${password-hashing.strength:10}")
+    private int passwordHashingStrength;
+
+    // 0 means one thread per available core
+    @Value("${password-hashing.threads:0}")
+    private int passwordHashingThreads;
+
+    @Value("${password-hashing.queue-capacity:64}")
+    private int passwordHashingQueueCapacity;
 
     @Bean
-    UserDetailsService userDetailsService() {
-        return username -> userRepository.findByEmail(username)
-            .orElseThrow(() -> new UsernameNotFoundException("User not found."));
+    CachingUserDetailsService userDetailsService() {
+        CachingUserDetailsService service = new CachingUserDetailsService(userRepository, userCacheTtl, userCacheMaxSize);
+        // exposes cache.gets{result=hit|miss}, cache.evictions, ... under cache=users
+        CaffeineCacheMetrics.monitor(meterRegistry, service.getCache(), "users");
+        return service;
     }
 
     @Bean
@@ -40,6 +62,12 @@ public class ApplicationConfig {
 
     @Bean
     PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+        int threads = passwordHashingThreads > 0 ? passwordHashingThreads : Runtime.getRuntime().availableProcessors();
+        return new BoundedPasswordEncoder(
+            new BCryptPasswordEncoder(passwordHashingStrength),
+            threads,
+            passwordHashingQueueCapacity,
+            meterRegistry
+        );
     }
 }
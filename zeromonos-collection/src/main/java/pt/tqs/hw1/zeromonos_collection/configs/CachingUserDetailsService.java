@@ -0,0 +1,69 @@
+package pt.tqs.hw1.zeromonos_collection.configs;
+
+import java.time.Duration;
+
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.User;
+import pt.tqs.hw1.zeromonos_collection.repository.UserRepository;
+
+/**
+ * Bounded, expiring cache of users keyed by email in front of the users table.
+ * Entries are evicted by {@link UserCacheInvalidationListener} once a write to a user row commits.
+ */
+@Slf4j
+public class CachingUserDetailsService implements UserDetailsService {
+
+    private final UserRepository userRepository;
+    private final Cache<String, User> cache;
+
+    public CachingUserDetailsService(UserRepository userRepository, Duration ttl, long maxSize) {
+        this.userRepository = userRepository;
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+    }
+
+    @Override
+    public UserDetails loadUserByUsername(String username) {
+        // unknown emails are not cached, so a later registration is seen immediately
+        User user = cache.get(User.normalizeEmail(username), email -> userRepository.findByEmail(email).orElse(null));
+        if (user == null) {
+            throw new UsernameNotFoundException("User not found.");
+        }
+        return user;
+    }
+
+    public void evict(String email) {
+        log.debug("Evicting cached user for email={}", email);
+        cache.invalidate(email);
+    }
+
+    // a load between the write and its commit still reads the old row, so evicting earlier could leave it cached
+    public void evictAfterCommit(String email) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            evict(email);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                evict(email);
+            }
+        });
+    }
+
+    public Cache<String, User> getCache() {
+        return cache;
+    }
+}
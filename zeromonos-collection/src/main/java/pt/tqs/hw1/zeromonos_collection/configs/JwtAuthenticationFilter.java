@@ -3,6 +3,7 @@ package pt.tqs.hw1.zeromonos_collection.configs;
 import java.io.IOException;
 import java.util.List;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.context.SecurityContextHolder;
@@ -17,7 +18,9 @@ import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import pt.tqs.hw1.zeromonos_collection.auth.ParsedToken;
 import pt.tqs.hw1.zeromonos_collection.service.JwtService;
+import pt.tqs.hw1.zeromonos_collection.service.TokenDenylist;
 
 @Component
 @RequiredArgsConstructor
@@ -25,6 +28,10 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final UserDetailsService userDetailsService;
+    private final TokenDenylist tokenDenylist;
+
+    @Value("${jwt.stateless:false}")
+    private boolean stateless;
 
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
@@ -35,22 +42,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                     return;
                 }
                 final String jwt = authHeader.substring(7);
-                final String userEmail = jwtService.getUsername(jwt);
+                // signature and expiry are verified once; every claim below comes from this object
+                final ParsedToken token = jwtService.parse(jwt);
+                final String userEmail = token.getSubject();
 
-                // User is not already authenticated
-                if (userEmail != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-                    UserDetails userDetails = userDetailsService.loadUserByUsername(userEmail);
-                    if (jwtService.isTokenValid(jwt, userDetails)) {
+                // User is not already authenticated and did not log out with this token
+                if (userEmail != null && !tokenDenylist.isRevoked(token.getId())
+                        && SecurityContextHolder.getContext().getAuthentication() == null) {
+                    Object principal = resolvePrincipal(token);
+                    if (principal != null) {
 
-                        @SuppressWarnings("unchecked")
-                        List<String> roles = jwtService.extractClaim(jwt, claims -> claims.get("roles", List.class));
-                        
-                        List<SimpleGrantedAuthority> authorities = roles.stream()
+                        List<SimpleGrantedAuthority> authorities = token.getRoles().stream()
                             .map(SimpleGrantedAuthority::new)
                             .toList();
 
                         UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
-                            userDetails,
+                            principal,
                             null,
                             authorities
                         );
@@ -62,5 +69,14 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
                 }
                 filterChain.doFilter(request, response);
     }
-    
+
+    private Object resolvePrincipal(ParsedToken token) {
+        // parse() already verified signature and expiry, so the claims can be trusted as-is
+        if (stateless) {
+            return token;
+        }
+
+        UserDetails userDetails = userDetailsService.loadUserByUsername(token.getSubject());
+        return jwtService.isTokenValid(token, userDetails) ? userDetails : null;
+    }
 }
@@ -33,6 +33,7 @@ public class SecurityConfiguration {
                 .requestMatchers(
                     "/api/v1/auth/**",
                     "/api/v1/bookings/public/**",
+                    "/api/v1/locations/**", // reference data, cacheable by shared caches
                     "/swagger-ui/**",
                     "/v3/api-docs/**",
                     "/swagger-ui.html"
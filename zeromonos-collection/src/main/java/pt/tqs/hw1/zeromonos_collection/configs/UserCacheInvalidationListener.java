@@ -0,0 +1,30 @@
+package pt.tqs.hw1.zeromonos_collection.configs;
+
+import org.springframework.beans.factory.ObjectProvider;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import pt.tqs.hw1.zeromonos_collection.entity.User;
+
+/**
+ * JPA listener that drops a user from the {@link CachingUserDetailsService} cache
+ * whenever the row is inserted, updated or deleted. The callbacks run at flush, so the
+ * eviction itself waits for the transaction to commit.
+ */
+public class UserCacheInvalidationListener {
+
+    // provider, because JPA slices (e.g. @DataJpaTest) run without the security beans
+    private final ObjectProvider<CachingUserDetailsService> userDetailsService;
+
+    public UserCacheInvalidationListener(ObjectProvider<CachingUserDetailsService> userDetailsService) {
+        this.userDetailsService = userDetailsService;
+    }
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(User user) {
+        userDetailsService.ifAvailable(service -> service.evictAfterCommit(user.getEmail()));
+    }
+}
@@ -16,6 +16,7 @@ public class WebConfig {
                     .allowedOrigins("http://localhost:5173")
                     .allowedMethods("GET", "POST", "PUT", "DELETE")
                     .allowedHeaders("*")
+                    .exposedHeaders("X-Next-Cursor")
                     .allowCredentials(true);
             }
         };
@@ -1,9 +1,11 @@
 package pt.tqs.hw1.zeromonos_collection.controllers;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
@@ -42,4 +44,14 @@ class AuthenticationController {
         log.info("Authentication request for email={}", request.getEmail());
         return ResponseEntity.ok(service.authenticate(request));
     }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(@RequestHeader(HttpHeaders.AUTHORIZATION) String authHeader) {
+        if (!authHeader.startsWith("Bearer ")) {
+            return ResponseEntity.badRequest().build();
+        }
+        log.info("Logout request");
+        service.logout(authHeader.substring(7));
+        return ResponseEntity.noContent().build();
+    }
 }
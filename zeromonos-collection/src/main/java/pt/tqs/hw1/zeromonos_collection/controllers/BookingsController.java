@@ -1,12 +1,18 @@
 package pt.tqs.hw1.zeromonos_collection.controllers;
 
+import java.io.IOException;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.zip.GZIPOutputStream;
 
 import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
@@ -18,14 +24,27 @@ import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
 
+import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingPage;
 import pt.tqs.hw1.zeromonos_collection.entity.BookingRequest;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingSearchCriteria;
 import pt.tqs.hw1.zeromonos_collection.entity.BookingStateHistory;
 import pt.tqs.hw1.zeromonos_collection.entity.BookingStateUpdateRequest;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingView;
+import pt.tqs.hw1.zeromonos_collection.entity.ChangeFeed;
+import pt.tqs.hw1.zeromonos_collection.entity.DayAvailability;
+import pt.tqs.hw1.zeromonos_collection.entity.SlotHold;
+import pt.tqs.hw1.zeromonos_collection.entity.SlotSuggestion;
+import pt.tqs.hw1.zeromonos_collection.entity.State;
+import pt.tqs.hw1.zeromonos_collection.service.BookingExportService;
 import pt.tqs.hw1.zeromonos_collection.service.BookingsService;
+import pt.tqs.hw1.zeromonos_collection.service.PublicBookingCache;
+import pt.tqs.hw1.zeromonos_collection.service.PublicBookingCache.CachedBooking;
 import org.springframework.web.bind.annotation.RequestParam;
 
 
@@ -35,11 +54,18 @@ import org.springframework.web.bind.annotation.RequestParam;
 @Slf4j
 public class BookingsController {
     
+    public static final String NEXT_CURSOR_HEADER = "X-Next-Cursor";
+    private static final String DEFAULT_PAGE_SIZE = "" + BookingsService.DEFAULT_PAGE_SIZE;
+    private static final String DEFAULT_CHANGES = "" + BookingsService.DEFAULT_CHANGES;
+
     private final BookingsService bookingsService;
+    private final BookingExportService bookingExportService;
+    private final PublicBookingCache publicBookingCache;
 
-    @GetMapping("/public/{token}")
-    public ResponseEntity<Booking> getBookingByToken(@PathVariable String token) {
-        Optional<Booking> booking = bookingsService.getByToken(token);
+    // served from pre-serialized bytes; clients revalidate with If-None-Match and get 304 while unchanged
+    @GetMapping(value = "/public/{token}", produces = MediaType.APPLICATION_JSON_VALUE)
+    public ResponseEntity<byte[]> getBookingByToken(@PathVariable String token, WebRequest request) {
+        Optional<CachedBooking> booking = publicBookingCache.get(token);
 
         if (booking.isEmpty()) {
             log.info("GET booking by token not found for token={}", token);
@@ -47,51 +73,64 @@ public class BookingsController {
         }
 
         log.info("GET booking by token for token={}", token);
-        return ResponseEntity.ok(booking.get());
+        if (request.checkNotModified(booking.get().etag())) {
+            return null;
+        }
+        return ResponseEntity.ok()
+            .eTag(booking.get().etag())
+            .cacheControl(CacheControl.noCache())
+            .body(booking.get().body());
     }
 
     @PreAuthorize("hasRole('CITIZEN')")
     @PostMapping
-    public ResponseEntity<Booking> createBooking(@RequestBody BookingRequest request, Authentication authentication) {
+    public ResponseEntity<BookingView> createBooking(@RequestBody BookingRequest request, Authentication authentication) {
         String userEmail = authentication.getName();
         Booking booking = bookingsService.createBooking(request, userEmail);
 
         log.info("POST create a booking for email={}", userEmail);
-        return ResponseEntity.status(HttpStatus.CREATED).body(booking);
+        return ResponseEntity.status(HttpStatus.CREATED).body(BookingView.of(booking));
     }
 
     @PreAuthorize("hasRole('CITIZEN')")
     @GetMapping("/me")
-    public ResponseEntity<List<Booking>> getAllBookingsForCitizen(Authentication authentication) {
+    public ResponseEntity<List<BookingView>> getAllBookingsForCitizen(
+        Authentication authentication,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size
+    ) {
         String userEmail = authentication.getName();
-        List<Booking> bookings = bookingsService.getBookingsByCitizen(userEmail);
+        BookingPage page = bookingsService.getBookingsByCitizen(userEmail, cursor, size);
 
         log.info("GET bookings for citizen={}", userEmail);
-        return ResponseEntity.ok(bookings);
+        return pageResponse(page);
     }
 
     @PreAuthorize("hasRole('CITIZEN')")
     @DeleteMapping("/{id}")
-    public ResponseEntity<Booking> cancelBooking(@PathVariable Long id) {
+    public ResponseEntity<BookingView> cancelBooking(@PathVariable Long id) {
         Booking canceled = bookingsService.cancelBooking(id);
 
         log.info("DELETE cancel booking={}", id);
-        return ResponseEntity.ok(canceled);
+        return ResponseEntity.ok(BookingView.of(canceled));
     }
 
     @PreAuthorize("hasRole('STAFF')")
     @GetMapping
-    public ResponseEntity<List<Booking>> getAllBookings() {
+    public ResponseEntity<List<BookingView>> getAllBookings(
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size
+    ) {
 
         log.info("GET all bookings");
-        return ResponseEntity.ok(bookingsService.getAllBookings());
+        return pageResponse(bookingsService.getAllBookings(cursor, size));
     }
 
 
     @PreAuthorize("hasRole('CITIZEN') or hasRole('STAFF')")
     @GetMapping("/{id}")
-    public ResponseEntity<Booking> getBookingDetails(@PathVariable Long id) {
-        Booking booking = bookingsService.getById(id);
+    public ResponseEntity<BookingView> getBookingDetails(@PathVariable Long id) {
+        BookingView booking = bookingsService.getDetails(id);
 
         log.info("GET details for booking={}", id);
         return ResponseEntity.ok(booking);
@@ -99,12 +138,12 @@ public class BookingsController {
 
     @PreAuthorize("hasRole('STAFF')")
     @PutMapping("/{id}/state")
-    public ResponseEntity<Booking> updateBookingState(@PathVariable Long id, @RequestBody BookingStateUpdateRequest request, Authentication authentication) {
+    public ResponseEntity<BookingView> updateBookingState(@PathVariable Long id, @RequestBody BookingStateUpdateRequest request, Authentication authentication) {
         String userEmail = authentication.getName();
         Booking updated = bookingsService.updateState(id, request.getState(), userEmail);
 
         log.info("PUT update state for booking={} for email={}", userEmail);
-        return ResponseEntity.ok(updated);
+        return ResponseEntity.ok(BookingView.of(updated));
     }
 
     @PreAuthorize("hasRole('CITIZEN') or hasRole('STAFF')")
@@ -125,19 +164,143 @@ public class BookingsController {
         return ResponseEntity.ok(available);
     }
 
+    @PreAuthorize("hasRole('CITIZEN') or hasRole('STAFF')")
+    @GetMapping("/available-times/range")
+    public ResponseEntity<List<DayAvailability>> getAvailability(
+        @RequestParam String municipality,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to
+    ) {
+        List<DayAvailability> availability = bookingsService.getAvailability(municipality, from, to);
+        log.info("GET availability for municipality={} from={} to={}", municipality, from, to);
+        return ResponseEntity.ok(availability);
+    }
+
+    @PreAuthorize("hasRole('CITIZEN') or hasRole('STAFF')")
+    @GetMapping("/available-times/next")
+    public ResponseEntity<List<SlotSuggestion>> findNextAvailable(
+        @RequestParam String municipality,
+        @RequestParam(required = false) String district,
+        @RequestParam(defaultValue = "5") int limit
+    ) {
+        List<SlotSuggestion> slots = bookingsService.findNextAvailable(municipality, district, limit);
+        log.info("GET next available slots for municipality={} district={}", municipality, district);
+        return ResponseEntity.ok(slots);
+    }
+
+    @PreAuthorize("hasRole('CITIZEN')")
+    @PostMapping("/holds")
+    public ResponseEntity<SlotHold> placeHold(@RequestBody BookingRequest request, Authentication authentication) {
+        SlotHold hold = bookingsService.placeHold(request, authentication.getName());
+        log.info("POST slot hold for email={}", authentication.getName());
+        return ResponseEntity.status(HttpStatus.CREATED).body(hold);
+    }
+
+    @PreAuthorize("hasRole('CITIZEN')")
+    @DeleteMapping("/holds/{holdId}")
+    public ResponseEntity<Void> releaseHold(@PathVariable String holdId, Authentication authentication) {
+        bookingsService.releaseHold(holdId, authentication.getName());
+        log.info("DELETE slot hold for email={}", authentication.getName());
+        return ResponseEntity.noContent().build();
+    }
+
+    // free-text lookup over description, village and postal code, newest first
+    @PreAuthorize("hasRole('STAFF')")
+    @GetMapping("/text-search")
+    public ResponseEntity<List<BookingView>> searchText(
+        @RequestParam String q,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int limit
+    ) {
+        log.info("GET bookings text search");
+        return ResponseEntity.ok(bookingsService.searchText(q, limit));
+    }
+
+    // any combination of filters, paged like the other lists
+    @PreAuthorize("hasRole('STAFF')")
+    @GetMapping("/search")
+    public ResponseEntity<List<BookingView>> searchBookings(
+        @RequestParam(name = "state", required = false) Set<State> states,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+        @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+        @RequestParam(required = false) String district,
+        @RequestParam(required = false) String municipality,
+        @RequestParam(required = false) String createdBy,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size
+    ) {
+        BookingSearchCriteria criteria = BookingSearchCriteria.builder()
+            .states(states)
+            .from(from)
+            .to(to)
+            .district(district)
+            .municipality(municipality)
+            .createdBy(createdBy)
+            .build();
+        log.info("GET bookings search");
+        return pageResponse(bookingsService.searchBookings(criteria, cursor, size));
+    }
+
+    // incremental sync: state transitions after the since cursor
+    @PreAuthorize("hasRole('STAFF')")
+    @GetMapping("/changes")
+    public ResponseEntity<ChangeFeed> getChanges(
+        @RequestParam(required = false) String since,
+        @RequestParam(defaultValue = DEFAULT_CHANGES) int limit
+    ) {
+        log.info("GET booking changes limit={}", limit);
+        return ResponseEntity.ok(bookingsService.getChangesSince(since, limit));
+    }
+
+    // NDJSON, one booking per line, streamed straight to the client
+    @PreAuthorize("hasRole('STAFF')")
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public void exportBookings(
+        @RequestParam(defaultValue = "false") boolean gzip,
+        HttpServletResponse response
+    ) throws IOException {
+        log.info("GET bookings export gzip={}", gzip);
+        response.setContentType("application/x-ndjson");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"bookings.ndjson\"");
+        if (!gzip) {
+            bookingExportService.exportAll(response.getOutputStream());
+            return;
+        }
+        response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        GZIPOutputStream out = new GZIPOutputStream(response.getOutputStream(), 8192);
+        bookingExportService.exportAll(out);
+        out.finish();
+    }
+
     @PreAuthorize("hasRole('STAFF')")
     @GetMapping("/municipality/{municipality}")
-    public ResponseEntity<List<Booking>> getBookingsByMunicipality(@PathVariable String municipality) {
-        List<Booking> bookings = bookingsService.getBookingsByMunicipality(municipality);
+    public ResponseEntity<List<BookingView>> getBookingsByMunicipality(
+        @PathVariable String municipality,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size
+    ) {
+        BookingPage page = bookingsService.getBookingsByMunicipality(municipality, cursor, size);
         log.info("GET bookings for municipality={}", municipality);
-        return ResponseEntity.ok(bookings);
+        return pageResponse(page);
     }
 
     @PreAuthorize("hasRole('STAFF')")
     @GetMapping("/district/{district}")
-    public ResponseEntity<List<Booking>> getBookingsByDistrict(@PathVariable String district) {
-        List<Booking> bookings = bookingsService.getBookingsByDistrict(district);
+    public ResponseEntity<List<BookingView>> getBookingsByDistrict(
+        @PathVariable String district,
+        @RequestParam(required = false) String cursor,
+        @RequestParam(defaultValue = DEFAULT_PAGE_SIZE) int size
+    ) {
+        BookingPage page = bookingsService.getBookingsByDistrict(district, cursor, size);
         log.info("GET bookings for district={}", district);
-        return ResponseEntity.ok(bookings);
+        return pageResponse(page);
+    }
+
+    // the body stays a plain array; the cursor of the next page travels in a header
+    private ResponseEntity<List<BookingView>> pageResponse(BookingPage page) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok();
+        if (page.getNextCursor() != null) {
+            response.header(NEXT_CURSOR_HEADER, page.getNextCursor());
+        }
+        return response.body(page.getItems());
     }
 }
@@ -0,0 +1,82 @@
+package pt.tqs.hw1.zeromonos_collection.controllers;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.WebRequest;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.MunicipalityEntry;
+import pt.tqs.hw1.zeromonos_collection.entity.PostalCodeLocation;
+import pt.tqs.hw1.zeromonos_collection.service.LocationCatalog;
+import pt.tqs.hw1.zeromonos_collection.service.PostalCodeService;
+
+@RestController
+@RequestMapping("/api/v1/locations")
+@RequiredArgsConstructor
+@Slf4j
+public class LocationsController {
+
+    private static final int MAX_SUGGESTIONS = 50;
+    private static final Duration CATALOG_MAX_AGE = Duration.ofDays(7);
+
+    private final PostalCodeService postalCodeService;
+    private final LocationCatalog locationCatalog;
+
+    // the catalog only changes with a deploy: cache for a week, revalidate with the ETag
+    @GetMapping("/districts")
+    public ResponseEntity<List<String>> getDistricts(WebRequest request) {
+        if (request.checkNotModified(locationCatalog.getEtag())) {
+            return null;
+        }
+        return cached(locationCatalog.getDistricts());
+    }
+
+    @GetMapping("/municipalities")
+    public ResponseEntity<List<MunicipalityEntry>> getMunicipalities(
+        @RequestParam(required = false) String district,
+        WebRequest request
+    ) {
+        if (request.checkNotModified(locationCatalog.getEtag())) {
+            return null;
+        }
+        if (district == null) {
+            return cached(locationCatalog.getMunicipalities());
+        }
+        return cached(locationCatalog.municipalitiesOf(district));
+    }
+
+    @GetMapping("/postal-codes/{postalCode}")
+    public ResponseEntity<PostalCodeLocation> resolvePostalCode(@PathVariable String postalCode) {
+        log.info("GET location for postal code={}", postalCode);
+        PostalCodeLocation location = postalCodeService.resolve(postalCode)
+            .orElseThrow(() -> new NoSuchElementException("Unknown postal code."));
+        return ResponseEntity.ok(location);
+    }
+
+    // autocomplete while the postal code is being typed
+    @GetMapping("/postal-codes")
+    public ResponseEntity<List<PostalCodeLocation>> completePostalCode(
+        @RequestParam String prefix,
+        @RequestParam(defaultValue = "10") int limit
+    ) {
+        log.info("GET postal code suggestions for prefix={}", prefix);
+        return ResponseEntity.ok(postalCodeService.complete(prefix, Math.clamp(limit, 1, MAX_SUGGESTIONS)));
+    }
+
+    private <T> ResponseEntity<T> cached(T body) {
+        return ResponseEntity.ok()
+            .eTag(locationCatalog.getEtag())
+            .cacheControl(CacheControl.maxAge(CATALOG_MAX_AGE).cachePublic())
+            .body(body);
+    }
+}
@@ -0,0 +1,39 @@
+package pt.tqs.hw1.zeromonos_collection.controllers;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingPolicy;
+import pt.tqs.hw1.zeromonos_collection.entity.MunicipalityPolicy;
+import pt.tqs.hw1.zeromonos_collection.service.BookingPolicyService;
+
+@RestController
+@RequestMapping("/api/v1/policies")
+@RequiredArgsConstructor
+@Slf4j
+public class PoliciesController {
+
+    private final BookingPolicyService bookingPolicyService;
+
+    @GetMapping("/{municipality}")
+    public ResponseEntity<BookingPolicy> getPolicy(@PathVariable String municipality) {
+        log.info("GET booking policy for municipality={}", municipality);
+        return ResponseEntity.ok(bookingPolicyService.getPolicy(municipality));
+    }
+
+    @PreAuthorize("hasRole('STAFF')")
+    @PutMapping("/{municipality}")
+    public ResponseEntity<MunicipalityPolicy> updatePolicy(@PathVariable String municipality, @RequestBody MunicipalityPolicy request) {
+        MunicipalityPolicy saved = bookingPolicyService.savePolicy(municipality, request);
+        log.info("PUT booking policy for municipality={}", municipality);
+        return ResponseEntity.ok(saved);
+    }
+}
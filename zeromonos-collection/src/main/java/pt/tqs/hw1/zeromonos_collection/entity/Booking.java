@@ -4,12 +4,15 @@ import java.time.LocalDate;
 import java.time.LocalTime;
 
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
 import jakarta.persistence.Temporal;
 import jakarta.persistence.TemporalType;
 import lombok.AllArgsConstructor;
@@ -22,16 +25,28 @@ import lombok.NoArgsConstructor;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
+@Table(indexes = {
+    // keep in sync with db/migration/*/V*.sql
+    @Index(name = "idx_booking_municipality_date_time", columnList = "municipality_id, date, time"),
+    @Index(name = "idx_booking_date", columnList = "date"),
+    // keyset pagination: equality filter first, then the id being paged on
+    @Index(name = "idx_booking_municipality_id", columnList = "municipality_id, id"),
+    @Index(name = "idx_booking_district_id", columnList = "district_id, id"),
+    @Index(name = "idx_booking_created_by_id", columnList = "created_by, id")
+})
 public class Booking {
     
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
     private Long id;
 
-    @Column(nullable = false)
+    // stored as ids into the district/municipality dictionary tables
+    @Column(name = "district_id", nullable = false)
+    @Convert(converter = DistrictIdConverter.class)
     private String district;
 
-    @Column(nullable = false)
+    @Column(name = "municipality_id", nullable = false)
+    @Convert(converter = MunicipalityIdConverter.class)
     private String municipality;
 
     @Column(nullable = false)
@@ -0,0 +1,27 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One state transition from the change feed, with the booking fields a
+ * consumer needs to apply it without fetching the booking again.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingChange {
+    private Long changeId; // BookingStateHistory id
+    private Long bookingId;
+    private State state;
+    private LocalDateTime timestamp;
+    private String district;
+    private String municipality;
+    private LocalDate date;
+    private LocalTime time;
+}
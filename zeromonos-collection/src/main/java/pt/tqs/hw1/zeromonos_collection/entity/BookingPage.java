@@ -0,0 +1,17 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingPage {
+    private List<BookingView> items;
+    private String nextCursor; // null on the last page
+}
@@ -0,0 +1,105 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+
+/**
+ * Immutable booking rules for one municipality: capacities, service hours, slot length
+ * and closed week days. The bookable slots are computed once, on creation.
+ */
+@Getter
+@EqualsAndHashCode
+public final class BookingPolicy {
+
+    private final int dailyCapacity;
+    private final int slotCapacity;
+    private final LocalTime openTime;
+    private final LocalTime closeTime;
+    private final int slotMinutes;
+    private final Set<DayOfWeek> closedDays;
+    private final List<LocalTime> slots;
+
+    public BookingPolicy(int dailyCapacity, int slotCapacity, LocalTime openTime, LocalTime closeTime,
+                         int slotMinutes, Set<DayOfWeek> closedDays) {
+        if (dailyCapacity < 1 || slotCapacity < 1) {
+            throw new IllegalArgumentException("Capacities must be at least 1.");
+        }
+        if (slotMinutes < 1) {
+            throw new IllegalArgumentException("Slot length must be at least 1 minute.");
+        }
+        if (!openTime.isBefore(closeTime)) {
+            throw new IllegalArgumentException("Opening time must be before closing time.");
+        }
+        this.dailyCapacity = dailyCapacity;
+        this.slotCapacity = slotCapacity;
+        this.openTime = openTime;
+        this.closeTime = closeTime;
+        this.slotMinutes = slotMinutes;
+        this.closedDays = closedDays.isEmpty() ? Set.of() : Set.copyOf(EnumSet.copyOf(closedDays));
+
+        List<LocalTime> all = new ArrayList<>();
+        for (LocalTime t = openTime; t.isBefore(closeTime) && !t.isBefore(openTime); t = t.plusMinutes(slotMinutes)) {
+            all.add(t);
+        }
+        this.slots = List.copyOf(all);
+    }
+
+    /** 10 bookings a day, one per hourly slot, 08:00 to 17:00, closed on weekends. */
+    public static BookingPolicy standard() {
+        return new BookingPolicy(10, 1, LocalTime.of(8, 0), LocalTime.of(17, 0), 60,
+            EnumSet.of(DayOfWeek.SATURDAY, DayOfWeek.SUNDAY));
+    }
+
+    public static BookingPolicy from(MunicipalityPolicy row) {
+        if (row.getDailyCapacity() == null || row.getSlotCapacity() == null || row.getOpenTime() == null
+                || row.getCloseTime() == null || row.getSlotMinutes() == null) {
+            throw new IllegalArgumentException("Capacities, opening hours and slot length are required.");
+        }
+        return new BookingPolicy(row.getDailyCapacity(), row.getSlotCapacity(), row.getOpenTime(),
+            row.getCloseTime(), row.getSlotMinutes(), parseDays(row.getClosedDays()));
+    }
+
+    public static Set<DayOfWeek> parseDays(String days) {
+        if (days == null || days.isBlank()) {
+            return Set.of();
+        }
+        return Arrays.stream(days.split(","))
+            .map(String::trim)
+            .filter(d -> !d.isEmpty())
+            .map(d -> DayOfWeek.valueOf(d.toUpperCase()))
+            .collect(Collectors.toCollection(() -> EnumSet.noneOf(DayOfWeek.class)));
+    }
+
+    /** Position of time in {@link #getSlots()}, or -1 when it does not start a slot. */
+    public int slotIndex(LocalTime time) {
+        if (time.isBefore(openTime)) {
+            return -1;
+        }
+        long index = Duration.between(openTime, time).toMinutes() / slotMinutes;
+        // also rejects seconds, which toMinutes() would drop
+        if (index >= slots.size() || !slots.get((int) index).equals(time)) {
+            return -1;
+        }
+        return (int) index;
+    }
+
+    public boolean isClosedOn(LocalDate date) {
+        return closedDays.contains(date.getDayOfWeek());
+    }
+
+    // the closing time itself is excluded: the last slot starts before it
+    public boolean isWithinHours(LocalTime time) {
+        return !time.isBefore(openTime) && time.isBefore(closeTime);
+    }
+}
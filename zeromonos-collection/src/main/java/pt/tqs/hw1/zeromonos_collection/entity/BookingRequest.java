@@ -20,4 +20,5 @@ public class BookingRequest {
     private LocalDate date;
     private LocalTime time;
     private String description;
+    private String holdId; // optional, from POST /api/v1/bookings/holds
 }
@@ -0,0 +1,25 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.time.LocalDate;
+import java.util.Set;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Staff search filters; every field is optional and the set ones are ANDed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingSearchCriteria {
+    private Set<State> states;
+    private LocalDate from; // inclusive
+    private LocalDate to; // inclusive
+    private String district;
+    private String municipality;
+    private String createdBy;
+}
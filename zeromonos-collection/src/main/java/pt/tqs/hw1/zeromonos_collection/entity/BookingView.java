@@ -0,0 +1,35 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Read model of a booking as the API returns it. Lists are selected straight into
+ * this class, so no entities are loaded or tracked by the persistence context.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookingView {
+    private Long id;
+    private String district;
+    private String municipality;
+    private String village;
+    private String postalCode;
+    private LocalDate date;
+    private LocalTime time;
+    private String description;
+    private String token;
+    private State state;
+    private String createdBy; // citizen email
+
+    public static BookingView of(Booking booking) {
+        return new BookingView(booking.getId(), booking.getDistrict(), booking.getMunicipality(), booking.getVillage(),
+            booking.getPostalCode(), booking.getDate(), booking.getTime(), booking.getDescription(),
+            booking.getToken(), booking.getState(), booking.getCreatedBy());
+    }
+}
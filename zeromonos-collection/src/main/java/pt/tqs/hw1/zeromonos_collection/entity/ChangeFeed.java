@@ -0,0 +1,16 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChangeFeed {
+    private List<BookingChange> changes;
+    private String nextCursor; // pass as since= on the next call, even when changes is empty
+    private boolean hasMore;
+}
@@ -0,0 +1,42 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(
+    name = "daily_capacity",
+    uniqueConstraints = @UniqueConstraint(name = "uk_daily_capacity_municipality_date", columnNames = {"municipality", "date"}),
+    indexes = @Index(name = "idx_daily_capacity_date", columnList = "date")
+)
+public class DailyCapacity {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private String municipality;
+
+    @Column(nullable = false)
+    private LocalDate date;
+
+    @Column(nullable = false)
+    private Integer used; // active (non canceled) bookings
+}
@@ -0,0 +1,20 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class DayAvailability {
+    private LocalDate date;
+    private List<LocalTime> availableTimes;
+    private int remainingCapacity;
+}
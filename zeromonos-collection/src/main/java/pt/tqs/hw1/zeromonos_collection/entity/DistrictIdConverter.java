@@ -0,0 +1,24 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import lombok.RequiredArgsConstructor;
+import pt.tqs.hw1.zeromonos_collection.repository.LocationDictionary;
+
+// district name in the entity and the API, its dictionary id in the booking table
+@Converter
+@RequiredArgsConstructor
+public class DistrictIdConverter implements AttributeConverter<String, Short> {
+
+    private final LocationDictionary locationDictionary;
+
+    @Override
+    public Short convertToDatabaseColumn(String name) {
+        return locationDictionary.districtId(name);
+    }
+
+    @Override
+    public String convertToEntityAttribute(Short id) {
+        return locationDictionary.districtName(id);
+    }
+}
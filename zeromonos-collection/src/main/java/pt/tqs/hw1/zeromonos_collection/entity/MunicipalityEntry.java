@@ -0,0 +1,14 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// one row of the location catalog; the shape the frontend used to get from opendatasoft
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class MunicipalityEntry {
+    private String name;
+    private String district;
+}
@@ -0,0 +1,47 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.time.LocalTime;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "municipality_policy")
+public class MunicipalityPolicy {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String municipality;
+
+    @Column(nullable = false)
+    private Integer dailyCapacity;
+
+    @Column(nullable = false)
+    private Integer slotCapacity;
+
+    @Column(nullable = false)
+    private LocalTime openTime;
+
+    @Column(nullable = false)
+    private LocalTime closeTime;
+
+    @Column(nullable = false)
+    private Integer slotMinutes;
+
+    private String closedDays; // comma separated DayOfWeek names, e.g. "SATURDAY,SUNDAY"
+}
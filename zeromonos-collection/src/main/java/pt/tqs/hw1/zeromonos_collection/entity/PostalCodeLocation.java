@@ -0,0 +1,14 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PostalCodeLocation {
+    private String postalCode; // CP4 ("4700") or CP7 ("4700-123")
+    private String district;
+    private String municipality;
+}
@@ -0,0 +1,23 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+// what anyone holding a booking token may see: no id, token or citizen email
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicBookingView {
+    private String district;
+    private String municipality;
+    private String village;
+    private String postalCode;
+    private LocalDate date;
+    private LocalTime time;
+    private String description;
+    private State state;
+}
@@ -0,0 +1,26 @@
+package pt.tqs.hw1.zeromonos_collection.entity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlotHold {
+    private String id;
+    @JsonIgnore
+    private String owner;
+    private String municipality;
+    private LocalDate date;
+    private LocalTime time;
+    private Instant expiresAt;
+}
@@ -2,34 +2,47 @@ package pt.tqs.hw1.zeromonos_collection.entity;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Locale;
 
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.Id;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
+import pt.tqs.hw1.zeromonos_collection.configs.UserCacheInvalidationListener;
 
 @Data
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "users")
+@Table(
+    name = "users",
+    uniqueConstraints = @UniqueConstraint(name = "uk_users_email", columnNames = "email")
+)
+@EntityListeners(UserCacheInvalidationListener.class)
 public class User implements UserDetails {
 
     @Id
     @GeneratedValue
     private Integer id;
     private String name;
+
+    // always written and looked up through normalizeEmail; the unique index is on the
+    // column as stored, so it only sees case variants because of that
+    @Column(nullable = false)
     private String email;
     private String password;
 
@@ -51,4 +64,8 @@ public class User implements UserDetails {
         return password;
     }
 
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
 }
@@ -3,12 +3,14 @@ package pt.tqs.hw1.zeromonos_collection.errors;
 import java.util.Map;
 import java.util.NoSuchElementException;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authorization.AuthorizationDeniedException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
 
+import io.jsonwebtoken.JwtException;
 import lombok.extern.slf4j.Slf4j;
 
 @RestControllerAdvice
@@ -53,6 +55,25 @@ public class ControllerExceptionHandler {
             ));
     }
 
+    @ExceptionHandler(JwtException.class)
+    public ResponseEntity<Map<String, Object>> handleInvalidToken(JwtException e) {
+        log.error(e.getMessage());
+        return ResponseEntity.status(HttpStatus.UNAUTHORIZED)
+            .body(Map.of(
+                error, "Invalid token"
+            ));
+    }
+
+    @ExceptionHandler(PasswordHashingRejectedException.class)
+    public ResponseEntity<Map<String, Object>> handlePasswordHashingRejected(PasswordHashingRejectedException e) {
+        log.warn(e.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+            .header(HttpHeaders.RETRY_AFTER, "1")
+            .body(Map.of(
+                error, e.getMessage()
+            ));
+    }
+
     @ExceptionHandler(Exception.class)
     public ResponseEntity<Map<String, Object>> handleGenericException(Exception e) {
         log.error(e.getMessage());
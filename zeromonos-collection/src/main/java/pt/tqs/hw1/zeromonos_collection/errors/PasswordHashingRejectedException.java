@@ -0,0 +1,12 @@
+package pt.tqs.hw1.zeromonos_collection.errors;
+
+/**
+ * Thrown when the password hashing queue is full and the request is shed
+ * instead of waiting for a hashing thread.
+ */
+public class PasswordHashingRejectedException extends RuntimeException {
+
+    public PasswordHashingRejectedException(String message) {
+        super(message);
+    }
+}
@@ -1,23 +1,82 @@
 package pt.tqs.hw1.zeromonos_collection.repository;
 
 import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 
+import jakarta.persistence.QueryHint;
+
 import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingView;
+import pt.tqs.hw1.zeromonos_collection.entity.PublicBookingView;
+import pt.tqs.hw1.zeromonos_collection.entity.State;
+
+public interface BookingRepository extends JpaRepository<Booking, Long>, JpaSpecificationExecutor<Booking>, BookingViewSearch {
+    // read models are selected column by column into DTOs, never through managed entities
+    String VIEW = "SELECT new pt.tqs.hw1.zeromonos_collection.entity.BookingView(" +
+                  "b.id, b.district, b.municipality, b.village, b.postalCode, b.date, b.time, " +
+                  "b.description, b.token, b.state, b.createdBy) FROM Booking b ";
+
+    @Query("SELECT new pt.tqs.hw1.zeromonos_collection.entity.PublicBookingView(" +
+           "b.district, b.municipality, b.village, b.postalCode, b.date, b.time, b.description, b.state) " +
+           "FROM Booking b WHERE b.token = :token")
+    Optional<PublicBookingView> findPublicViewByToken(@Param("token") String token);
+
+    @Query(VIEW + "WHERE b.id = :id")
+    Optional<BookingView> findViewById(@Param("id") Long id);
+
+    @Query(VIEW + "WHERE b.id IN :ids")
+    List<BookingView> findViewsByIdIn(@Param("ids") Collection<Long> ids);
+
+    long countByMunicipalityAndDateAndStateNot(String municipality, LocalDate date, State state);
+    long countByMunicipalityAndDateAndTimeAndStateNot(String municipality, LocalDate date, LocalTime time, State state);
+
+    // rows of [time, count]
+    @Query("SELECT b.time, COUNT(b) FROM Booking b " +
+           "WHERE b.municipality = :municipality AND b.date = :date AND b.state <> :excluded GROUP BY b.time")
+    List<Object[]> countActiveByTime(@Param("municipality") String municipality, @Param("date") LocalDate date,
+                                     @Param("excluded") State excluded);
+
+    // rows of [date, time, count]
+    @Query("SELECT b.date, b.time, COUNT(b) FROM Booking b " +
+           "WHERE b.municipality = :municipality AND b.date BETWEEN :from AND :to AND b.state <> :excluded " +
+           "GROUP BY b.date, b.time")
+    List<Object[]> countActiveByDateAndTime(@Param("municipality") String municipality, @Param("from") LocalDate from,
+                                            @Param("to") LocalDate to, @Param("excluded") State excluded);
+
+    // keyset pages: rows after the last id seen, in id order
+    @Query(VIEW + "WHERE b.id > :afterId ORDER BY b.id")
+    List<BookingView> findViewsAfter(@Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW + "WHERE b.createdBy = :createdBy AND b.id > :afterId ORDER BY b.id")
+    List<BookingView> findViewsByCreatedByAfter(@Param("createdBy") String createdBy, @Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW + "WHERE b.municipality = :municipality AND b.id > :afterId ORDER BY b.id")
+    List<BookingView> findViewsByMunicipalityAfter(@Param("municipality") String municipality, @Param("afterId") Long afterId, Limit limit);
+
+    @Query(VIEW + "WHERE b.district = :district AND b.id > :afterId ORDER BY b.id")
+    List<BookingView> findViewsByDistrictAfter(@Param("district") String district, @Param("afterId") Long afterId, Limit limit);
 
-public interface BookingRepository extends JpaRepository<Booking, Long> {
-    Optional<Booking> findByToken(String token);
-    List<Booking> findAllByCreatedBy(String userEmail);
+    // server-side cursor for exports; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = "org.hibernate.fetchSize", value = "500"))
+    @Query(VIEW + "ORDER BY b.id")
+    Stream<BookingView> streamAllViews();
 
-    @Query("SELECT COUNT(b) FROM Booking b WHERE b.municipality = :municipality AND b.date = :date")
-    Long countByMunicipalityAndDate(@Param("municipality") String municipality, @Param("date") LocalDate date);
+    @Query("SELECT MAX(b.id) FROM Booking b")
+    Long findMaxId();
 
-    List<Booking> findByMunicipalityAndDate(String municipality, LocalDate date);
-    List<Booking> findByMunicipality(String municipality);
-    List<Booking> findByDistrict(String district);
+    // rows of [id, description, village, postalCode] with afterId < id <= toId
+    @Query("SELECT b.id, b.description, b.village, b.postalCode FROM Booking b " +
+           "WHERE b.id > :afterId AND b.id <= :toId ORDER BY b.id")
+    List<Object[]> findTextBetween(@Param("afterId") Long afterId, @Param("toId") Long toId, Limit limit);
 }
@@ -0,0 +1,48 @@
+package pt.tqs.hw1.zeromonos_collection.repository;
+
+import org.springframework.data.jpa.domain.Specification;
+
+import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingSearchCriteria;
+
+/**
+ * Builds the staff search query from whichever criteria are set. Predicates are
+ * added most selective first, equality before ranges, matching the leading
+ * columns of the booking indexes (municipality, date, ...), (district, id),
+ * (created_by, id) and (date).
+ */
+public final class BookingSpecifications {
+
+    private BookingSpecifications() {
+    }
+
+    public static Specification<Booking> matching(BookingSearchCriteria criteria, Long afterId) {
+        // on the first page an "id > 0" range would only steer the planner towards the primary key
+        Specification<Booking> spec = afterId > 0
+            ? (root, query, cb) -> cb.greaterThan(root.get("id"), afterId)
+            : Specification.unrestricted();
+        if (criteria.getMunicipality() != null) {
+            spec = spec.and(equal("municipality", criteria.getMunicipality()));
+        }
+        if (criteria.getDistrict() != null) {
+            spec = spec.and(equal("district", criteria.getDistrict()));
+        }
+        if (criteria.getCreatedBy() != null) {
+            spec = spec.and(equal("createdBy", criteria.getCreatedBy()));
+        }
+        if (criteria.getFrom() != null) {
+            spec = spec.and((root, query, cb) -> cb.greaterThanOrEqualTo(root.get("date"), criteria.getFrom()));
+        }
+        if (criteria.getTo() != null) {
+            spec = spec.and((root, query, cb) -> cb.lessThanOrEqualTo(root.get("date"), criteria.getTo()));
+        }
+        if (criteria.getStates() != null && !criteria.getStates().isEmpty()) {
+            spec = spec.and((root, query, cb) -> root.get("state").in(criteria.getStates()));
+        }
+        return spec;
+    }
+
+    private static Specification<Booking> equal(String attribute, Object value) {
+        return (root, query, cb) -> cb.equal(root.get(attribute), value);
+    }
+}
@@ -2,10 +2,23 @@ package pt.tqs.hw1.zeromonos_collection.repository;
 
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import pt.tqs.hw1.zeromonos_collection.entity.BookingChange;
 import pt.tqs.hw1.zeromonos_collection.entity.BookingStateHistory;
 
 public interface BookingStateHistoryRepository extends JpaRepository<BookingStateHistory, Long> {
     List<BookingStateHistory> findByBookingIdOrderByTimestampAsc(Long bookingId);
+
+    @Query("""
+        SELECT new pt.tqs.hw1.zeromonos_collection.entity.BookingChange(
+            h.id, h.bookingId, h.state, h.timestamp, b.district, b.municipality, b.date, b.time)
+        FROM BookingStateHistory h JOIN Booking b ON b.id = h.bookingId
+        WHERE h.id > :afterId
+        ORDER BY h.id
+        """)
+    List<BookingChange> findChangesAfter(@Param("afterId") Long afterId, Limit limit);
 }
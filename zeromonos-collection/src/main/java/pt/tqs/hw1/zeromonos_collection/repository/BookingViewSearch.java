@@ -0,0 +1,20 @@
+package pt.tqs.hw1.zeromonos_collection.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingView;
+
+/**
+ * Specification queries that select straight into {@link BookingView}. The fluent
+ * {@code findBy(spec, q -> q.as(...))} of JpaSpecificationExecutor still loads
+ * and manages entities for class-based projections.
+ */
+public interface BookingViewSearch {
+
+    // rows matching the specification, in id order
+    List<BookingView> findViews(Specification<Booking> spec, Limit limit);
+}
@@ -0,0 +1,42 @@
+package pt.tqs.hw1.zeromonos_collection.repository;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.domain.Specification;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingView;
+
+@RequiredArgsConstructor
+class BookingViewSearchImpl implements BookingViewSearch {
+
+    private final EntityManager entityManager;
+
+    @Override
+    public List<BookingView> findViews(Specification<Booking> spec, Limit limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<BookingView> query = cb.createQuery(BookingView.class);
+        Root<Booking> b = query.from(Booking.class);
+
+        // same columns, in the same order, as BookingRepository.VIEW
+        query.select(cb.construct(BookingView.class,
+            b.get("id"), b.get("district"), b.get("municipality"), b.get("village"), b.get("postalCode"),
+            b.get("date"), b.get("time"), b.get("description"), b.get("token"), b.get("state"), b.get("createdBy")));
+        Predicate predicate = spec.toPredicate(b, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.orderBy(cb.asc(b.get("id")));
+
+        return entityManager.createQuery(query)
+            .setMaxResults(limit.max())
+            .getResultList();
+    }
+}
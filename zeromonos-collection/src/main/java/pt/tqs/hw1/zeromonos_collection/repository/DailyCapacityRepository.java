@@ -0,0 +1,36 @@
+package pt.tqs.hw1.zeromonos_collection.repository;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import pt.tqs.hw1.zeromonos_collection.entity.DailyCapacity;
+
+public interface DailyCapacityRepository extends JpaRepository<DailyCapacity, Long> {
+
+    // returns 1 when a spot was taken, 0 when the day is full (or has no ledger row yet)
+    @Transactional
+    @Modifying
+    @Query("UPDATE DailyCapacity c SET c.used = c.used + 1 " +
+           "WHERE c.municipality = :municipality AND c.date = :date AND c.used < :max")
+    int reserve(@Param("municipality") String municipality, @Param("date") LocalDate date, @Param("max") int max);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE DailyCapacity c SET c.used = c.used - 1 " +
+           "WHERE c.municipality = :municipality AND c.date = :date AND c.used > 0")
+    int release(@Param("municipality") String municipality, @Param("date") LocalDate date);
+
+    Optional<DailyCapacity> findByMunicipalityAndDate(String municipality, LocalDate date);
+
+    List<DailyCapacity> findByDateGreaterThanEqual(LocalDate date);
+
+    List<DailyCapacity> findByMunicipalityInAndDateBetween(Collection<String> municipalities, LocalDate from, LocalDate to);
+}
@@ -0,0 +1,110 @@
+package pt.tqs.hw1.zeromonos_collection.repository;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.service.LocationCatalog;
+
+/**
+ * In-memory copy of the district and municipality dictionary tables, used by the
+ * booking converters to swap names for their smallint ids and back. A municipality
+ * name has one id across its districts; the booking's district picks the entry.
+ * The tables are only written by migrations, so they are read once, on first use
+ * (the converters can be called before Flyway has finished).
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class LocationDictionary {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private volatile Dictionary districts;
+    private volatile Dictionary municipalities;
+
+    // null for names not in the dictionary, so lookups by them match no rows
+    public Short districtId(String name) {
+        return districts().idOf(name);
+    }
+
+    public String districtName(Short id) {
+        return districts().nameOf(id);
+    }
+
+    public Short municipalityId(String name) {
+        return municipalities().idOf(name);
+    }
+
+    public String municipalityName(Short id) {
+        return municipalities().nameOf(id);
+    }
+
+    public boolean containsDistrict(String name) {
+        return districtId(name) != null;
+    }
+
+    public boolean containsMunicipality(String name) {
+        return municipalityId(name) != null;
+    }
+
+    private Dictionary districts() {
+        if (districts == null) {
+            load();
+        }
+        return districts;
+    }
+
+    private Dictionary municipalities() {
+        if (municipalities == null) {
+            load();
+        }
+        return municipalities;
+    }
+
+    private synchronized void load() {
+        if (municipalities != null) {
+            return;
+        }
+        districts = read("SELECT id, name FROM district");
+        municipalities = read("SELECT DISTINCT id, name FROM municipality");
+        log.info("Loaded location dictionary with {} districts and {} municipalities",
+            districts.names.size(), municipalities.names.size());
+    }
+
+    private Dictionary read(String sql) {
+        Dictionary dictionary = new Dictionary();
+        jdbcTemplate.query(sql, rs -> {
+            short id = rs.getShort(1);
+            String name = rs.getString(2);
+            dictionary.ids.put(LocationCatalog.normalize(name), id);
+            dictionary.names.put(id, name);
+        });
+        return dictionary;
+    }
+
+    private static final class Dictionary {
+        // keyed by the catalog's normalized form, so case and accents do not matter
+        private final Map<String, Short> ids = new HashMap<>();
+        private final Map<Short, String> names = new HashMap<>();
+
+        Short idOf(String name) {
+            return name == null ? null : ids.get(LocationCatalog.normalize(name));
+        }
+
+        String nameOf(Short id) {
+            if (id == null) {
+                return null;
+            }
+            String name = names.get(id);
+            if (name == null) {
+                throw new IllegalStateException("No dictionary entry for location id " + id);
+            }
+            return name;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package pt.tqs.hw1.zeromonos_collection.repository;
+
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import pt.tqs.hw1.zeromonos_collection.entity.MunicipalityPolicy;
+
+public interface MunicipalityPolicyRepository extends JpaRepository<MunicipalityPolicy, Long> {
+    Optional<MunicipalityPolicy> findByMunicipality(String municipality);
+}
@@ -0,0 +1,34 @@
+package pt.tqs.hw1.zeromonos_collection.repository;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import pt.tqs.hw1.zeromonos_collection.entity.SlotCapacity;
+
+public interface SlotCapacityRepository extends JpaRepository<SlotCapacity, Long> {
+
+    // returns 1 when a spot was taken, 0 when the slot is full (or has no ledger row yet)
+    @Transactional
+    @Modifying
+    @Query("UPDATE SlotCapacity s SET s.used = s.used + 1 " +
+           "WHERE s.municipality = :municipality AND s.date = :date AND s.time = :time AND s.used < :max")
+    int reserve(@Param("municipality") String municipality, @Param("date") LocalDate date,
+                @Param("time") LocalTime time, @Param("max") int max);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE SlotCapacity s SET s.used = s.used - 1 " +
+           "WHERE s.municipality = :municipality AND s.date = :date AND s.time = :time AND s.used > 0")
+    int release(@Param("municipality") String municipality, @Param("date") LocalDate date, @Param("time") LocalTime time);
+
+    Optional<SlotCapacity> findByMunicipalityAndDateAndTime(String municipality, LocalDate date, LocalTime time);
+
+    boolean existsByMunicipalityAndDateAndTime(String municipality, LocalDate date, LocalTime time);
+}
@@ -1,5 +1,9 @@
 package pt.tqs.hw1.zeromonos_collection.service;
 
+import java.util.Locale;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
@@ -9,6 +13,7 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pt.tqs.hw1.zeromonos_collection.auth.AuthenticationRequest;
 import pt.tqs.hw1.zeromonos_collection.auth.AuthenticationResponse;
+import pt.tqs.hw1.zeromonos_collection.auth.ParsedToken;
 import pt.tqs.hw1.zeromonos_collection.auth.RegisterRequest;
 import pt.tqs.hw1.zeromonos_collection.entity.Role;
 import pt.tqs.hw1.zeromonos_collection.entity.User;
@@ -19,27 +24,35 @@ import pt.tqs.hw1.zeromonos_collection.repository.UserRepository;
 @Slf4j
 public class AuthenticationService {
 
+    private static final String EMAIL_CONSTRAINT = "uk_users_email";
+
     private final UserRepository repository;
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final TokenDenylist tokenDenylist;
     
     public AuthenticationResponse register(RegisterRequest request, Role role) {
         log.info("Register request for email={} with role={}", request.getEmail(), role);
-
-        if (repository.findByEmail(request.getEmail()).isPresent()) {
-            log.warn("Attempted to register with existing email={}", request.getEmail());
-            throw new IllegalStateException("Email already registered.");
-        }
+        String email = User.normalizeEmail(request.getEmail());
 
         User user = User.builder()
             .name(request.getName())
-            .email(request.getEmail())
+            .email(email)
             .password(passwordEncoder.encode(request.getPassword()))
             .role(role)
             .build();
 
-        repository.save(user);
+        // a single insert: the unique email index reports a taken email, also under concurrent registrations
+        try {
+            repository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (!violates(e, EMAIL_CONSTRAINT)) {
+                throw e;
+            }
+            log.warn("Attempted to register with existing email={}", email);
+            throw new IllegalStateException("Email already registered.");
+        }
         log.info("User registered successfully: email={}, role={}", user.getEmail(), role);
 
         String jwtToken = jwtService.generateToken(user);
@@ -48,15 +61,32 @@ public class AuthenticationService {
             .build();
     }
 
+    // H2 reports the constraint with schema and index suffixes, e.g. PUBLIC.UK_USERS_EMAIL_INDEX_4
+    private static boolean violates(DataIntegrityViolationException e, String constraint) {
+        for (Throwable cause = e.getCause(); cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException violation) {
+                String name = violation.getConstraintName();
+                return name != null && name.toLowerCase(Locale.ROOT).contains(constraint);
+            }
+        }
+        return false;
+    }
+
     public AuthenticationResponse authenticate(AuthenticationRequest request) {
         authenticationManager.authenticate(
             new UsernamePasswordAuthenticationToken(request.getEmail(), request.getPassword())
         );
 
-        User user = repository.findByEmail(request.getEmail()).orElseThrow();
+        User user = repository.findByEmail(User.normalizeEmail(request.getEmail())).orElseThrow();
         String jwtToken = jwtService.generateToken(user);
         return AuthenticationResponse.builder()
             .token(jwtToken)
             .build();
     }
+
+    public void logout(String jwt) {
+        ParsedToken token = jwtService.parse(jwt);
+        tokenDenylist.revoke(token.getId(), token.getExpiration());
+        log.info("Logout for email={}", token.getSubject());
+    }
 }
@@ -0,0 +1,54 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.stream.Stream;
+
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingView;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+
+/**
+ * Writes every booking as newline-delimited JSON while reading them through a
+ * database cursor. Rows are read straight into views, so nothing accumulates in
+ * the persistence context and the heap does not grow with the table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class BookingExportService {
+
+    private static final int FLUSH_EVERY = 500;
+
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+
+    @Transactional(readOnly = true)
+    public long exportAll(OutputStream out) throws IOException {
+        long written = 0;
+        JsonGenerator generator = objectMapper.getFactory().createGenerator(out);
+        // the caller owns the stream (it may be wrapped in gzip)
+        generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+
+        try (Stream<BookingView> bookings = bookingRepository.streamAllViews()) {
+            for (BookingView booking : (Iterable<BookingView>) bookings::iterator) {
+                objectMapper.writeValue(generator, booking);
+                generator.writeRaw('\n');
+                if (++written % FLUSH_EVERY == 0) {
+                    generator.flush();
+                }
+            }
+        }
+        generator.flush();
+
+        log.info("Exported {} bookings", written);
+        return written;
+    }
+}
@@ -0,0 +1,119 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.time.DayOfWeek;
+import java.time.LocalTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingPolicy;
+import pt.tqs.hw1.zeromonos_collection.entity.MunicipalityPolicy;
+import pt.tqs.hw1.zeromonos_collection.repository.MunicipalityPolicyRepository;
+
+/**
+ * Serves booking rules from an immutable snapshot of the municipality_policy table.
+ * Reads are a single volatile load plus a map lookup; a reload builds a new snapshot
+ * and swaps it in one write, so readers never see a half-applied change.
+ */
+@Service
+@Slf4j
+public class BookingPolicyService {
+
+    private record Snapshot(Map<String, BookingPolicy> byMunicipality, BookingPolicy defaults) {}
+
+    private final MunicipalityPolicyRepository municipalityPolicyRepository;
+    private final LocationCatalog locationCatalog;
+    private final BookingPolicy defaults;
+    private volatile Snapshot snapshot;
+
+    @Autowired
+    public BookingPolicyService(
+        MunicipalityPolicyRepository municipalityPolicyRepository,
+        LocationCatalog locationCatalog,
+        @Value("${booking.default-policy.daily-capacity:10}") int dailyCapacity,
+        @Value("${booking.default-policy.slot-capacity:1}") int slotCapacity,
+        @Value("${booking.default-policy.open-time:08:00}") LocalTime openTime,
+        @Value("${booking.default-policy.close-time:17:00}") LocalTime closeTime,
+        @Value("${booking.default-policy.slot-minutes:60}") int slotMinutes,
+        @Value("${booking.default-policy.closed-days:SATURDAY,SUNDAY}") String closedDays
+    ) {
+        this(municipalityPolicyRepository, locationCatalog, new BookingPolicy(dailyCapacity, slotCapacity, openTime, closeTime,
+            slotMinutes, BookingPolicy.parseDays(closedDays)));
+    }
+
+    public BookingPolicyService(MunicipalityPolicyRepository municipalityPolicyRepository, LocationCatalog locationCatalog,
+                                BookingPolicy defaults) {
+        this.municipalityPolicyRepository = municipalityPolicyRepository;
+        this.locationCatalog = locationCatalog;
+        this.defaults = defaults;
+        this.snapshot = new Snapshot(Map.of(), defaults);
+    }
+
+    public BookingPolicy policyFor(String municipality) {
+        Snapshot current = snapshot;
+        return current.byMunicipality().getOrDefault(municipality, current.defaults());
+    }
+
+    /** Same as {@link #policyFor} for a name as typed by a client, e.g. "lisboa". */
+    public BookingPolicy getPolicy(String municipality) {
+        return policyFor(knownMunicipality(municipality));
+    }
+
+    public BookingPolicy getDefaults() {
+        return defaults;
+    }
+
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${booking.policy.reload-interval:60000}",
+               initialDelayString = "${booking.policy.reload-interval:60000}")
+    public void reload() {
+        Map<String, BookingPolicy> policies = new HashMap<>();
+        for (MunicipalityPolicy row : municipalityPolicyRepository.findAll()) {
+            try {
+                policies.put(row.getMunicipality(), BookingPolicy.from(row));
+            } catch (IllegalArgumentException e) {
+                // keep serving the defaults for a broken row instead of failing the whole reload
+                log.error("Ignoring invalid booking policy for municipality={}: {}", row.getMunicipality(), e.getMessage());
+            }
+        }
+        snapshot = new Snapshot(Map.copyOf(policies), defaults);
+        log.info("Booking policies loaded: municipalities={}", policies.size());
+    }
+
+    public MunicipalityPolicy savePolicy(String name, MunicipalityPolicy request) {
+        // validates before anything is written
+        BookingPolicy.from(request);
+        String municipality = knownMunicipality(name);
+
+        MunicipalityPolicy policy = municipalityPolicyRepository.findByMunicipality(municipality)
+            .orElseGet(() -> MunicipalityPolicy.builder().municipality(municipality).build());
+        policy.setDailyCapacity(request.getDailyCapacity());
+        policy.setSlotCapacity(request.getSlotCapacity());
+        policy.setOpenTime(request.getOpenTime());
+        policy.setCloseTime(request.getCloseTime());
+        policy.setSlotMinutes(request.getSlotMinutes());
+        policy.setClosedDays(normalizeDays(BookingPolicy.parseDays(request.getClosedDays())));
+
+        MunicipalityPolicy saved = municipalityPolicyRepository.save(policy);
+        log.info("Booking policy updated for municipality={}", municipality);
+        reload();
+        return saved;
+    }
+
+    // stored under the catalog spelling, the name bookings and availability look policies up by
+    private String knownMunicipality(String municipality) {
+        return locationCatalog.municipalityName(municipality)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown municipality " + municipality + "."));
+    }
+
+    private static String normalizeDays(Set<DayOfWeek> days) {
+        return String.join(",", days.stream().sorted().map(DayOfWeek::name).toList());
+    }
+}
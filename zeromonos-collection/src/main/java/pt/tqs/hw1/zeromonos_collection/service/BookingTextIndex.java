@@ -0,0 +1,257 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+
+/**
+ * In-memory inverted index over the free-text fields of bookings (description, village and
+ * postal code). Tokens are lower-cased and accent-folded, so "colchao" finds "Colchão", and
+ * every query term matches as a prefix of indexed tokens. Postings are sorted id arrays,
+ * which keeps the AND of several terms a linear merge.
+ */
+@Service
+@Slf4j
+public class BookingTextIndex {
+
+    public static final int MIN_TERM_LENGTH = 2;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    private final BookingRepository bookingRepository;
+    private final int rebuildThreads;
+    private final int batchSize;
+
+    private final ConcurrentSkipListMap<String, Postings> index = new ConcurrentSkipListMap<>();
+
+    public BookingTextIndex(
+        BookingRepository bookingRepository,
+        @Value("${search.text.rebuild-threads:0}") int rebuildThreads,
+        @Value("${search.text.batch-size:5000}") int batchSize
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.rebuildThreads = rebuildThreads > 0 ? rebuildThreads : Runtime.getRuntime().availableProcessors();
+        this.batchSize = batchSize;
+    }
+
+    public static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(text, Normalizer.Form.NFD)).replaceAll("").toLowerCase(Locale.ROOT);
+        return Arrays.stream(SEPARATORS.split(folded))
+            .filter(token -> !token.isEmpty())
+            .distinct()
+            .toList();
+    }
+
+    // idempotent, so re-indexing a booking that is already there is harmless
+    public void index(Booking booking) {
+        for (String token : tokensOf(booking.getDescription(), booking.getVillage(), booking.getPostalCode())) {
+            index.computeIfAbsent(token, t -> new Postings()).add(booking.getId());
+        }
+    }
+
+    /**
+     * Ids of the bookings matching every term of the query, newest first.
+     */
+    public List<Long> search(String query, int limit) {
+        List<String> terms = tokenize(query).stream()
+            .filter(term -> term.length() >= MIN_TERM_LENGTH)
+            .toList();
+        if (terms.isEmpty()) {
+            throw new IllegalArgumentException("Search needs a term of at least " + MIN_TERM_LENGTH + " characters.");
+        }
+
+        long[] matches = null;
+        for (String term : terms) {
+            long[] termMatches = matchPrefix(term);
+            matches = matches == null ? termMatches : intersect(matches, termMatches);
+            if (matches.length == 0) {
+                return List.of();
+            }
+        }
+
+        int count = Math.min(limit, matches.length);
+        List<Long> ids = new ArrayList<>(count);
+        for (int i = matches.length - 1; i >= matches.length - count; i--) {
+            ids.add(matches[i]);
+        }
+        return ids;
+    }
+
+    public int size() {
+        return index.size();
+    }
+
+    /**
+     * Rebuilds the index from the database. The id range is split into one segment per
+     * thread; each segment is read in keyset batches into a private map, and the maps
+     * are then merged. Bookings created meanwhile are indexed by {@link #index} and the
+     * merge keeps them, since postings are merged rather than replaced.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuild() {
+        long started = System.currentTimeMillis();
+        Long maxId = bookingRepository.findMaxId();
+        if (maxId == null) {
+            log.info("Text index rebuild skipped: no bookings");
+            return;
+        }
+
+        long span = maxId / rebuildThreads + 1;
+        List<Future<Map<String, Postings>>> segments = new ArrayList<>();
+        try (ExecutorService pool = Executors.newFixedThreadPool(rebuildThreads)) {
+            for (int i = 0; i < rebuildThreads; i++) {
+                long from = i * span;
+                long to = Math.min(maxId, from + span);
+                segments.add(pool.submit(() -> indexSegment(from, to)));
+            }
+            for (Future<Map<String, Postings>> segment : segments) {
+                segment.get().forEach((token, postings) -> index.computeIfAbsent(token, t -> new Postings()).addAll(postings.snapshot()));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Text index rebuild interrupted.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Text index rebuild failed.", e.getCause());
+        }
+        log.info("Text index rebuilt up to id={} with {} tokens in {} ms", maxId, index.size(), System.currentTimeMillis() - started);
+    }
+
+    // bookings with from < id <= to
+    private Map<String, Postings> indexSegment(long from, long to) {
+        Map<String, Postings> local = new HashMap<>();
+        long afterId = from;
+        List<Object[]> rows;
+        do {
+            rows = bookingRepository.findTextBetween(afterId, to, Limit.of(batchSize));
+            for (Object[] row : rows) {
+                long id = (Long) row[0];
+                for (String token : tokensOf((String) row[1], (String) row[2], (String) row[3])) {
+                    local.computeIfAbsent(token, t -> new Postings()).add(id);
+                }
+                afterId = id;
+            }
+        } while (rows.size() == batchSize);
+        return local;
+    }
+
+    private static List<String> tokensOf(String... fields) {
+        return Arrays.stream(fields)
+            .flatMap(field -> tokenize(field).stream())
+            .distinct()
+            .toList();
+    }
+
+    private long[] matchPrefix(String term) {
+        NavigableMap<String, Postings> matches = index.subMap(term, true, term + Character.MAX_VALUE, false);
+        if (matches.size() == 1) {
+            return matches.firstEntry().getValue().snapshot();
+        }
+        return matches.values().stream()
+            .flatMapToLong(postings -> LongStream.of(postings.snapshot()))
+            .sorted()
+            .distinct()
+            .toArray();
+    }
+
+    private static long[] intersect(long[] a, long[] b) {
+        long[] out = new long[Math.min(a.length, b.length)];
+        int i = 0;
+        int j = 0;
+        int n = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                out[n++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(out, n);
+    }
+
+    // sorted, duplicate-free ids; new bookings have the highest ids, so add is usually an append
+    private static final class Postings {
+        private long[] ids = new long[4];
+        private int size;
+
+        synchronized void add(long id) {
+            if (size > 0 && ids[size - 1] < id) {
+                append(id);
+                return;
+            }
+            int at = Arrays.binarySearch(ids, 0, size, id);
+            if (at >= 0) {
+                return;
+            }
+            at = -at - 1;
+            grow();
+            System.arraycopy(ids, at, ids, at + 1, size - at);
+            ids[at] = id;
+            size++;
+        }
+
+        synchronized void addAll(long[] sorted) {
+            long[] merged = new long[size + sorted.length];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < size || j < sorted.length) {
+                long next;
+                if (j == sorted.length || (i < size && ids[i] <= sorted[j])) {
+                    next = ids[i++];
+                } else {
+                    next = sorted[j++];
+                }
+                if (n == 0 || merged[n - 1] != next) {
+                    merged[n++] = next;
+                }
+            }
+            ids = merged;
+            size = n;
+        }
+
+        synchronized long[] snapshot() {
+            return Arrays.copyOf(ids, size);
+        }
+
+        private void append(long id) {
+            grow();
+            ids[size++] = id;
+        }
+
+        private void grow() {
+            if (size == ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(4, size * 2));
+            }
+        }
+    }
+}
@@ -1,26 +1,47 @@
 package pt.tqs.hw1.zeromonos_collection.service;
 
+import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
-import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.NoSuchElementException;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.Set;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.function.BiFunction;
 
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingChange;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingPage;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingPolicy;
 import pt.tqs.hw1.zeromonos_collection.entity.BookingRequest;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingSearchCriteria;
 import pt.tqs.hw1.zeromonos_collection.entity.BookingStateHistory;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingView;
+import pt.tqs.hw1.zeromonos_collection.entity.ChangeFeed;
+import pt.tqs.hw1.zeromonos_collection.entity.DayAvailability;
+import pt.tqs.hw1.zeromonos_collection.entity.MunicipalityEntry;
+import pt.tqs.hw1.zeromonos_collection.entity.PostalCodeLocation;
+import pt.tqs.hw1.zeromonos_collection.entity.SlotHold;
+import pt.tqs.hw1.zeromonos_collection.entity.SlotSuggestion;
 import pt.tqs.hw1.zeromonos_collection.entity.State;
 import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingSpecifications;
 import pt.tqs.hw1.zeromonos_collection.repository.BookingStateHistoryRepository;
 
 @Service
@@ -30,13 +51,86 @@ public class BookingsService {
 
     private final BookingRepository bookingRepository;
     private final BookingStateHistoryRepository bookingStateHistoryRepository;
+    private final CapacityLedgerService capacityLedgerService;
+    private final PlatformTransactionManager transactionManager;
+    private final BookingPolicyService bookingPolicyService;
+    private final SlotAvailabilityService slotAvailabilityService;
+    private final SlotHoldService slotHoldService;
+    private final BookingTextIndex bookingTextIndex;
+    private final PostalCodeService postalCodeService;
+    private final LocationCatalog locationCatalog;
+    private final PublicBookingCache publicBookingCache;
 
-    // max capacity for municipality per day (all equal to simplify)
-    private static final Integer MAX_CAPACITY_PER_DAY_PER_MUNICIPALITY = 10;
+    public static final int DEFAULT_PAGE_SIZE = 50;
+    public static final int MAX_PAGE_SIZE = 200;
+    public static final int DEFAULT_CHANGES = 100;
+    public static final int MAX_CHANGES = 1000;
+
+    // history ids are taken on insert but only show up on commit, so the change feed
+    // leaves the most recent transitions for a later poll
+    @Value("${changes.commit-lag:5s}")
+    private Duration changesCommitLag = Duration.ofSeconds(5);
 
 
     public Booking createBooking(BookingRequest request, String createdBy) {
         log.info("Booking requested for email={}", createdBy);
+        BookingPolicy policy = validateRequest(request);
+        LocalTime slot = slotOf(policy, request);
+
+        // a hold taken by this citizen for this exact slot is converted into the booking
+        SlotHold hold = null;
+        if (request.getHoldId() != null) {
+            hold = slotHoldService.find(request.getHoldId(), createdBy);
+            if (hold == null || !hold.getMunicipality().equals(request.getMunicipality())
+                    || !hold.getDate().equals(request.getDate()) || !hold.getTime().equals(slot)) {
+                log.warn("Booking request rejected: hold expired or not matching.");
+                throw new IllegalArgumentException("Hold expired or does not match the booking.");
+            }
+        }
+
+        // with the in-memory ledger enabled, full days are rejected without touching the database
+        if (hold == null && capacityLedgerService.isKnownFull(request.getMunicipality(), request.getDate(), policy.getDailyCapacity())) {
+            log.warn("Booking request rejected: booking capacity reached for that date.");
+            throw new IllegalArgumentException("Daily capacity reached for " + request.getMunicipality());
+        }
+
+        // created before the booking transaction so it never needs a second connection
+        capacityLedgerService.ensureDayLedger(request.getMunicipality(), request.getDate());
+        capacityLedgerService.ensureSlotLedger(request.getMunicipality(), request.getDate(), slot);
+
+        // spots held by others are not available; our own hold is what we are booking
+        int ownHold = hold == null ? 0 : 1;
+        int dayMax = policy.getDailyCapacity() - (slotHoldService.heldForDay(request.getMunicipality(), request.getDate()) - ownHold);
+        int slotMax = policy.getSlotCapacity() - (slotHoldService.heldForSlot(request.getMunicipality(), request.getDate(), slot) - ownHold);
+        Booking saved = new TransactionTemplate(transactionManager).execute(status -> insertBooking(request, createdBy, slot, dayMax, slotMax));
+        if (hold != null) {
+            slotHoldService.release(hold.getId());
+        }
+        bookingTextIndex.index(saved);
+        return saved;
+    }
+
+    public SlotHold placeHold(BookingRequest request, String owner) {
+        log.info("Slot hold requested for email={}", owner);
+        BookingPolicy policy = validateRequest(request);
+        LocalTime slot = slotOf(policy, request);
+        capacityLedgerService.ensureDayLedger(request.getMunicipality(), request.getDate());
+        capacityLedgerService.ensureSlotLedger(request.getMunicipality(), request.getDate(), slot);
+        return slotHoldService.place(owner, request.getMunicipality(), request.getDate(), slot,
+            capacityLedgerService.usedForDay(request.getMunicipality(), request.getDate()), policy.getDailyCapacity(),
+            capacityLedgerService.usedForSlot(request.getMunicipality(), request.getDate(), slot), policy.getSlotCapacity());
+    }
+
+    public void releaseHold(String holdId, String owner) {
+        if (slotHoldService.find(holdId, owner) == null || !slotHoldService.release(holdId)) {
+            throw new NoSuchElementException("Hold not found.");
+        }
+        log.info("Slot hold released for email={}", owner);
+    }
+
+    private BookingPolicy validateRequest(BookingRequest request) {
+        resolveLocation(request);
+        BookingPolicy policy = bookingPolicyService.policyFor(request.getMunicipality());
 
         // deny booking for past dates
         if (request.getDate().isBefore(LocalDate.now())) {
@@ -45,27 +139,93 @@ public class BookingsService {
         }
 
         // deny booking for out of service hours
-        if (request.getTime().isBefore(LocalTime.of(8, 0)) || request.getTime().isAfter(LocalTime.of(17, 0))) {
-            throw new IllegalArgumentException("Bookings allowed only between 08:00 and 17:00.");
+        if (!policy.isWithinHours(request.getTime())) {
+            throw new IllegalArgumentException("Bookings allowed only between " + policy.getOpenTime() + " and " + policy.getCloseTime() + ".");
+        }
+
+        // deny times that do not start a slot, they would be counted against a slot of their own
+        if (policy.slotIndex(request.getTime()) < 0) {
+            log.warn("Booking request rejected: time does not start a slot.");
+            throw new IllegalArgumentException("Bookings start every " + policy.getSlotMinutes() + " minutes from " + policy.getOpenTime() + ".");
+        }
+
+        // deny booking on closed days (weekends by default)
+        if (policy.isClosedOn(request.getDate())) {
+            log.warn("Booking request rejected: booking for a closed day.");
+            if (isWeekend(request.getDate())) {
+                throw new IllegalArgumentException("Bookings are not possible on weekends.");
+            }
+            throw new IllegalArgumentException("Bookings are not possible on " + request.getDate().getDayOfWeek() + " for " + request.getMunicipality() + ".");
         }
+        return policy;
+    }
+
+    // slot ledger rows are keyed on the slot start, so only call this after validateRequest
+    private static LocalTime slotOf(BookingPolicy policy, BookingRequest request) {
+        return policy.getSlots().get(policy.slotIndex(request.getTime()));
+    }
 
-        // deny booking on weekends
-        if (isWeekend(request.getDate())) {
-            log.warn("Booking request rejected: booking for weekends.");
-            throw new IllegalArgumentException("Bookings are not possible on weekends.");
+    // fills in a missing district/municipality from the postal code and, in strict mode, checks
+    // the ones sent against it; then requires a catalog municipality, all before any database work.
+    // The dataset can be partial, so otherwise a malformed, unknown or disagreeing code is not an error
+    private void resolveLocation(BookingRequest request) {
+        Optional<PostalCodeLocation> location = postalCodeService.lookup(request.getPostalCode());
+        if (postalCodeService.isStrict()) {
+            PostalCodeLocation resolved = location.orElseThrow(() -> {
+                log.warn("Booking request rejected: unknown postal code.");
+                return new IllegalArgumentException("Unknown postal code " + request.getPostalCode() + ".");
+            });
+            if (!matchesOrBlank(request.getMunicipality(), resolved.getMunicipality())
+                    || !matchesOrBlank(request.getDistrict(), resolved.getDistrict())) {
+                log.warn("Booking request rejected: postal code does not match the location.");
+                throw new IllegalArgumentException("Postal code " + request.getPostalCode() + " belongs to "
+                    + resolved.getMunicipality() + ", " + resolved.getDistrict() + ".");
+            }
+            request.setMunicipality(resolved.getMunicipality());
+            request.setDistrict(resolved.getDistrict());
+        } else if (location.isPresent() && isBlank(request.getMunicipality())
+                && matchesOrBlank(request.getDistrict(), location.get().getDistrict())) {
+            request.setMunicipality(location.get().getMunicipality());
+            request.setDistrict(location.get().getDistrict());
         }
 
-        Long currentCount = bookingRepository.countByMunicipalityAndDate(
-            request.getMunicipality(),
-            request.getDate()
-        );
+        MunicipalityEntry entry = locationCatalog.find(request.getDistrict(), request.getMunicipality())
+            .orElseThrow(() -> {
+                log.warn("Booking request rejected: unknown municipality.");
+                return new IllegalArgumentException("Unknown municipality " + request.getMunicipality()
+                    + (request.getDistrict() == null ? "" : " in " + request.getDistrict()) + ".");
+            });
+        // stored with the catalog spelling, so "lisboa" and "Lisboa" count as the same municipality
+        request.setMunicipality(entry.getName());
+        request.setDistrict(entry.getDistrict());
+    }
+
+    private static boolean matchesOrBlank(String sent, String expected) {
+        return isBlank(sent) || LocationCatalog.sameName(sent, expected);
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    private String knownMunicipality(String municipality) {
+        return locationCatalog.municipalityName(municipality)
+            .orElseThrow(() -> new IllegalArgumentException("Unknown municipality " + municipality + "."));
+    }
 
-        // deny bookings that reached max capacity
-        if (currentCount >= MAX_CAPACITY_PER_DAY_PER_MUNICIPALITY) {
+    private Booking insertBooking(BookingRequest request, String createdBy, LocalTime slot, int dayMax, int slotMax) {
+        // deny bookings that reached max capacity (the spot is taken atomically, with the insert)
+        if (!capacityLedgerService.reserveDay(request.getMunicipality(), request.getDate(), dayMax)) {
             log.warn("Booking request rejected: booking capacity reached for that date.");
             throw new IllegalArgumentException("Daily capacity reached for " + request.getMunicipality());
         }
 
+        // a full slot rolls back the day reservation taken above
+        if (!capacityLedgerService.reserveSlot(request.getMunicipality(), request.getDate(), slot, slotMax)) {
+            log.warn("Booking request rejected: time slot fully booked.");
+            throw new IllegalArgumentException("Time slot " + request.getTime() + " is fully booked for " + request.getMunicipality());
+        }
+
         Booking booking = Booking.builder()
             .district(request.getDistrict())
             .municipality(request.getMunicipality())
@@ -92,14 +252,11 @@ public class BookingsService {
         return saved;
     }
 
-    public Optional<Booking> getByToken(String token) {
-        return bookingRepository.findByToken(token);
-    }
-
-    public List<Booking> getBookingsByCitizen(String userEmail) {
-        return bookingRepository.findAllByCreatedBy(userEmail);
+    public BookingPage getBookingsByCitizen(String userEmail, String cursor, int size) {
+        return page(cursor, size, (afterId, limit) -> bookingRepository.findViewsByCreatedByAfter(userEmail, afterId, limit));
     }
 
+    @Transactional
     public Booking cancelBooking(Long id) {
         Booking b = getById(id);
         Booking saved = updateState(id, State.CANCELED, b.getCreatedBy());
@@ -107,8 +264,8 @@ public class BookingsService {
         return saved;
     }
 
-    public List<Booking> getAllBookings() {
-        return bookingRepository.findAll();
+    public BookingPage getAllBookings(String cursor, int size) {
+        return page(cursor, size, bookingRepository::findViewsAfter);
     }
 
     public Booking getById(Long id) {
@@ -116,6 +273,12 @@ public class BookingsService {
             .orElseThrow(() -> new NoSuchElementException("Booking not found."));
     }
 
+    public BookingView getDetails(Long id) {
+        return bookingRepository.findViewById(id)
+            .orElseThrow(() -> new NoSuchElementException("Booking not found."));
+    }
+
+    @Transactional
     public Booking updateState(Long id, State newState, String changedBy) {
         log.info("Booking state update requested with new_state={}; for email={}", newState, changedBy);
         Booking booking = getById(id);
@@ -132,6 +295,11 @@ public class BookingsService {
 
         booking.setState(newState);
         Booking saved = bookingRepository.save(booking);
+        publicBookingCache.evictAfterCommit(saved.getToken());
+        if (newState == State.CANCELED) {
+            capacityLedgerService.releaseDay(saved.getMunicipality(), saved.getDate());
+            capacityLedgerService.releaseSlot(saved.getMunicipality(), saved.getDate(), saved.getTime());
+        }
         BookingStateHistory history = BookingStateHistory.builder()
             .bookingId(saved.getId().longValue())
             .state(newState)
@@ -149,33 +317,100 @@ public class BookingsService {
         return bookingStateHistoryRepository.findByBookingIdOrderByTimestampAsc(id);
     }
 
-    public List<LocalTime> getAvailableTimes(String municipality, LocalDate date) {
-        LocalTime start = LocalTime.of(8, 0);
-        LocalTime end = LocalTime.of(17, 0);
+    // transitions after the cursor in history id order; the returned cursor always
+    // points at the last change seen so consumers can keep polling with it
+    public ChangeFeed getChangesSince(String since, int limit) {
+        if (limit < 1 || limit > MAX_CHANGES) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_CHANGES + ".");
+        }
+        Long afterId = decodeCursor(since);
+        LocalDateTime settledBefore = LocalDateTime.now().minus(changesCommitLag);
+        List<BookingChange> rows = bookingStateHistoryRepository.findChangesAfter(afterId, Limit.of(limit + 1));
 
-        List<LocalTime> allSlots = new ArrayList<>();
-        for (LocalTime t = start; t.isBefore(end); t = t.plusHours(1)) {
-            allSlots.add(t);
+        // a lower id may still be uncommitted behind a recent change, and the cursor must never
+        // move past it, so the page stops at the first change younger than the commit lag
+        int settled = 0;
+        while (settled < rows.size() && rows.get(settled).getTimestamp().isBefore(settledBefore)) {
+            settled++;
         }
+        boolean hasMore = settled > limit;
+        List<BookingChange> changes = rows.subList(0, Math.min(settled, limit));
+        Long lastId = changes.isEmpty() ? afterId : changes.get(changes.size() - 1).getChangeId();
+        return new ChangeFeed(changes, encodeCursor(lastId), hasMore);
+    }
 
-        List<Booking> bookings = bookingRepository.findByMunicipalityAndDate(municipality, date);
-        Set<LocalTime> bookedTimes = bookings.stream()
-            .map(Booking::getTime)
-            .collect(Collectors.toSet());
-        
-        return allSlots.stream()
-            .filter(t -> !bookedTimes.contains(t))
-            .toList();
+    public List<LocalTime> getAvailableTimes(String municipality, LocalDate date) {
+        return slotAvailabilityService.getAvailableTimes(knownMunicipality(municipality), date);
+    }
+
+    public List<DayAvailability> getAvailability(String municipality, LocalDate from, LocalDate to) {
+        return slotAvailabilityService.getAvailability(knownMunicipality(municipality), from, to);
+    }
+
+    public List<SlotSuggestion> findNextAvailable(String municipality, String district, int limit) {
+        return slotAvailabilityService.findNextAvailable(knownMunicipality(municipality), district, limit);
     }
 
-    public List<Booking> getBookingsByMunicipality(String municipality) {
+    public BookingPage getBookingsByMunicipality(String municipality, String cursor, int size) {
         log.info("Bookings requested for municipality={}", municipality);
-        return bookingRepository.findByMunicipality(municipality);
+        return page(cursor, size, (afterId, limit) -> bookingRepository.findViewsByMunicipalityAfter(municipality, afterId, limit));
     }
 
-    public List<Booking> getBookingsByDistrict(String  district) {
+    public BookingPage getBookingsByDistrict(String  district, String cursor, int size) {
         log.info("Bookings requested for district={}", district);
-        return bookingRepository.findByDistrict(district);
+        return page(cursor, size, (afterId, limit) -> bookingRepository.findViewsByDistrictAfter(district, afterId, limit));
+    }
+
+    public List<BookingView> searchText(String query, int limit) {
+        if (limit < 1 || limit > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        List<Long> ids = bookingTextIndex.search(query, limit);
+        // an IN query does not keep the order of the ids
+        Map<Long, BookingView> byId = new HashMap<>();
+        bookingRepository.findViewsByIdIn(ids).forEach(booking -> byId.put(booking.getId(), booking));
+        return ids.stream().map(byId::get).filter(Objects::nonNull).toList();
+    }
+
+    public BookingPage searchBookings(BookingSearchCriteria criteria, String cursor, int size) {
+        if (criteria.getFrom() != null && criteria.getTo() != null && criteria.getFrom().isAfter(criteria.getTo())) {
+            throw new IllegalArgumentException("The from date must not be after the to date.");
+        }
+        log.info("Bookings search requested with criteria={}", criteria);
+        return page(cursor, size, (afterId, limit) ->
+            bookingRepository.findViews(BookingSpecifications.matching(criteria, afterId), limit));
+    }
+
+    // fetches one row more than asked for to know whether another page exists
+    private BookingPage page(String cursor, int size, BiFunction<Long, Limit, List<BookingView>> query) {
+        if (size < 1 || size > MAX_PAGE_SIZE) {
+            throw new IllegalArgumentException("Page size must be between 1 and " + MAX_PAGE_SIZE + ".");
+        }
+        List<BookingView> rows = query.apply(decodeCursor(cursor), Limit.of(size + 1));
+        if (rows.size() <= size) {
+            return new BookingPage(rows, null);
+        }
+        List<BookingView> items = rows.subList(0, size);
+        return new BookingPage(items, encodeCursor(items.get(size - 1).getId()));
+    }
+
+    private static String encodeCursor(Long lastId) {
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(("id:" + lastId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Long decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) {
+            return 0L;
+        }
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            if (decoded.startsWith("id:")) {
+                return Long.parseLong(decoded.substring(3));
+            }
+        } catch (IllegalArgumentException e) {
+            // NumberFormatException included; reported below
+        }
+        throw new IllegalArgumentException("Invalid cursor.");
     }
 
     private String generateToken() {
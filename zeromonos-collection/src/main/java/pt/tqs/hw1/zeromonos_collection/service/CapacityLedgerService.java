@@ -0,0 +1,156 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Optional;
+
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.DailyCapacity;
+import pt.tqs.hw1.zeromonos_collection.entity.SlotCapacity;
+import pt.tqs.hw1.zeromonos_collection.entity.State;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.DailyCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.SlotCapacityRepository;
+
+/**
+ * Per (municipality, date) and per (municipality, date, time) booking counters. A spot is
+ * taken with one conditional UPDATE in the caller's transaction, so admission is O(1) and stays correct with
+ * concurrent requests on any number of nodes. When the optional
+ * {@link InMemoryCapacityLedger} is enabled, full days are rejected from memory.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CapacityLedgerService {
+
+    private final DailyCapacityRepository dailyCapacityRepository;
+    private final BookingRepository bookingRepository;
+    private final SlotCapacityRepository slotCapacityRepository;
+    private final SlotAvailabilityService slotAvailabilityService;
+    private final ObjectProvider<InMemoryCapacityLedger> inMemoryLedger;
+
+    /** Only answers from memory; false when the in-memory ledger is disabled or the day is unknown. */
+    public boolean isKnownFull(String municipality, LocalDate date, int max) {
+        InMemoryCapacityLedger ledger = inMemoryLedger.getIfAvailable();
+        return ledger != null && ledger.isKnownFull(municipality, date, max);
+    }
+
+    /**
+     * Creates the ledger row for a day if it is missing. Must be called outside the booking
+     * transaction: concurrent first bookings race on the unique key, and the loser has to
+     * be able to carry on with the row the winner committed.
+     */
+    public void ensureDayLedger(String municipality, LocalDate date) {
+        InMemoryCapacityLedger ledger = inMemoryLedger.getIfAvailable();
+        if (ledger != null && ledger.isTracked(municipality, date)) {
+            return;
+        }
+
+        Optional<DailyCapacity> existing = dailyCapacityRepository.findByMunicipalityAndDate(municipality, date);
+        if (existing.isEmpty()) {
+            try {
+                existing = Optional.of(dailyCapacityRepository.saveAndFlush(DailyCapacity.builder()
+                    .municipality(municipality)
+                    .date(date)
+                    .used(Math.toIntExact(bookingRepository.countByMunicipalityAndDateAndStateNot(
+                        municipality, date, State.CANCELED)))
+                    .build()));
+                log.info("Capacity ledger created for municipality={} date={}", municipality, date);
+            } catch (DataIntegrityViolationException e) {
+                log.debug("Capacity ledger already exists for municipality={} date={}", municipality, date);
+                existing = dailyCapacityRepository.findByMunicipalityAndDate(municipality, date);
+            }
+        }
+
+        if (ledger != null) {
+            existing.ifPresent(row -> ledger.track(municipality, date, row.getUsed()));
+        }
+    }
+
+    /** Same as {@link #ensureDayLedger} for a single hourly slot. */
+    public void ensureSlotLedger(String municipality, LocalDate date, LocalTime time) {
+        if (slotCapacityRepository.existsByMunicipalityAndDateAndTime(municipality, date, time)) {
+            return;
+        }
+        try {
+            slotCapacityRepository.saveAndFlush(SlotCapacity.builder()
+                .municipality(municipality)
+                .date(date)
+                .time(time)
+                .used(Math.toIntExact(bookingRepository.countByMunicipalityAndDateAndTimeAndStateNot(
+                    municipality, date, time, State.CANCELED)))
+                .build());
+        } catch (DataIntegrityViolationException e) {
+            log.debug("Slot ledger already exists for municipality={} date={} time={}", municipality, date, time);
+        }
+    }
+
+    public int usedForDay(String municipality, LocalDate date) {
+        return dailyCapacityRepository.findByMunicipalityAndDate(municipality, date).map(DailyCapacity::getUsed).orElse(0);
+    }
+
+    public int usedForSlot(String municipality, LocalDate date, LocalTime time) {
+        return slotCapacityRepository.findByMunicipalityAndDateAndTime(municipality, date, time).map(SlotCapacity::getUsed).orElse(0);
+    }
+
+    public boolean reserveDay(String municipality, LocalDate date, int max) {
+        boolean reserved = dailyCapacityRepository.reserve(municipality, date, max) == 1;
+        InMemoryCapacityLedger ledger = inMemoryLedger.getIfAvailable();
+        if (ledger != null) {
+            if (reserved) {
+                afterCommit(() -> ledger.add(municipality, date, 1));
+            } else {
+                // the row is full, possibly above max after a policy change, or was deleted
+                Optional<DailyCapacity> row = dailyCapacityRepository.findByMunicipalityAndDate(municipality, date);
+                if (row.isPresent()) {
+                    ledger.set(municipality, date, row.get().getUsed());
+                } else {
+                    ledger.forget(municipality, date);
+                }
+            }
+        }
+        return reserved;
+    }
+
+    public boolean reserveSlot(String municipality, LocalDate date, LocalTime time, int max) {
+        boolean reserved = slotCapacityRepository.reserve(municipality, date, time, max) == 1;
+        if (reserved) {
+            slotAvailabilityService.onSlotChanged(municipality, date, time, 1);
+        }
+        return reserved;
+    }
+
+    public void releaseSlot(String municipality, LocalDate date, LocalTime time) {
+        if (slotCapacityRepository.release(municipality, date, time) == 1) {
+            slotAvailabilityService.onSlotChanged(municipality, date, time, -1);
+        }
+    }
+
+    public void releaseDay(String municipality, LocalDate date) {
+        boolean released = dailyCapacityRepository.release(municipality, date) == 1;
+        InMemoryCapacityLedger ledger = inMemoryLedger.getIfAvailable();
+        if (released && ledger != null) {
+            afterCommit(() -> ledger.add(municipality, date, -1));
+        }
+    }
+
+    private void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
+    }
+}
@@ -0,0 +1,69 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.util.Iterator;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Consumer;
+
+/**
+ * Hashed timing wheel: timeouts are dropped into one of a fixed ring of buckets by their
+ * deadline tick, and each {@link #advance} only visits the buckets of the ticks that
+ * passed. Scheduling is O(1) and there is no thread or timer object per timeout; the
+ * caller drives the wheel from a single scheduled task.
+ */
+public final class HashedTimingWheel<T> {
+
+    private record Timeout<T>(T item, long deadlineTick) {}
+
+    private final long tickMillis;
+    private final long startMillis;
+    private final Queue<Timeout<T>>[] buckets;
+    private final int mask;
+    private volatile long currentTick;
+
+    @SuppressWarnings("unchecked")
+    public HashedTimingWheel(long tickMillis, int wheelSize, long startMillis) {
+        if (Integer.bitCount(wheelSize) != 1) {
+            throw new IllegalArgumentException("Wheel size must be a power of two.");
+        }
+        this.tickMillis = tickMillis;
+        this.startMillis = startMillis;
+        this.buckets = new Queue[wheelSize];
+        for (int i = 0; i < wheelSize; i++) {
+            buckets[i] = new ConcurrentLinkedQueue<>();
+        }
+        this.mask = wheelSize - 1;
+    }
+
+    public void schedule(T item, long deadlineMillis) {
+        long tick = Math.max(Math.ceilDiv(deadlineMillis - startMillis, tickMillis), currentTick + 1);
+        buckets[(int) (tick & mask)].add(new Timeout<>(item, tick));
+    }
+
+    /** Fires every timeout whose deadline tick is at or before now. */
+    public synchronized void advance(long nowMillis, Consumer<T> expired) {
+        long nowTick = (nowMillis - startMillis) / tickMillis;
+        // one full turn already visits every bucket
+        long from = Math.max(currentTick, nowTick - mask);
+        for (long tick = from; tick <= nowTick; tick++) {
+            Iterator<Timeout<T>> it = buckets[(int) (tick & mask)].iterator();
+            while (it.hasNext()) {
+                Timeout<T> timeout = it.next();
+                // entries for later turns of the wheel stay put
+                if (timeout.deadlineTick() <= nowTick) {
+                    it.remove();
+                    expired.accept(timeout.item());
+                }
+            }
+        }
+        currentTick = nowTick + 1;
+    }
+
+    public int size() {
+        int size = 0;
+        for (Queue<Timeout<T>> bucket : buckets) {
+            size += bucket.size();
+        }
+        return size;
+    }
+}
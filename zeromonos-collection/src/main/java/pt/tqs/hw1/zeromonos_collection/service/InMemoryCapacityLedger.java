@@ -0,0 +1,106 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.time.LocalDate;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.DailyCapacity;
+import pt.tqs.hw1.zeromonos_collection.repository.DailyCapacityRepository;
+
+/**
+ * Single-node copy of the daily_capacity counters, used to reject bookings for full days
+ * without a database round trip. The database ledger stays authoritative: counters here
+ * only move after a commit and are corrected by a periodic reconcile, whose first run at
+ * startup also warms the counters, so a day is only tracked once its database row has been seen.
+ */
+@Service
+@ConditionalOnProperty(name = "capacity.in-memory.enabled", havingValue = "true")
+@Slf4j
+public class InMemoryCapacityLedger {
+
+    private final DailyCapacityRepository dailyCapacityRepository;
+
+    // municipality names are interned to small ids so keys stay primitive: id << 32 | epochDay
+    private final Map<String, Integer> municipalityIds = new ConcurrentHashMap<>();
+    private final AtomicInteger nextMunicipalityId = new AtomicInteger();
+    private final StripedLongIntMap counters = new StripedLongIntMap(64);
+
+    public InMemoryCapacityLedger(DailyCapacityRepository dailyCapacityRepository) {
+        this.dailyCapacityRepository = dailyCapacityRepository;
+    }
+
+    public boolean isKnownFull(String municipality, LocalDate date, int max) {
+        Integer id = municipalityIds.get(municipality);
+        return id != null && counters.get(key(id, date.toEpochDay())) >= max;
+    }
+
+    public boolean isTracked(String municipality, LocalDate date) {
+        Integer id = municipalityIds.get(municipality);
+        return id != null && counters.get(key(id, date.toEpochDay())) != StripedLongIntMap.ABSENT;
+    }
+
+    // called with the database row; keeps a counter already tracked
+    public void track(String municipality, LocalDate date, int used) {
+        counters.putIfAbsent(key(idOf(municipality), date.toEpochDay()), used);
+    }
+
+    public void set(String municipality, LocalDate date, int used) {
+        counters.put(key(idOf(municipality), date.toEpochDay()), used);
+    }
+
+    // the day's database row is gone; its next booking creates and tracks it again
+    public void forget(String municipality, LocalDate date) {
+        Integer id = municipalityIds.get(municipality);
+        if (id != null) {
+            counters.remove(key(id, date.toEpochDay()));
+        }
+    }
+
+    public void add(String municipality, LocalDate date, int delta) {
+        Integer id = municipalityIds.get(municipality);
+        if (id != null) {
+            counters.addIfPresent(key(id, date.toEpochDay()), delta);
+        }
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    /**
+     * Overwrites the counters of current and future days with the database values and drops
+     * past days and days without a database row. A cancel committing while its row is being read can leave a day looking
+     * full until the next run; bookings are never over-admitted because of it.
+     */
+    @Scheduled(fixedDelayString = "${capacity.in-memory.reconcile-interval:300000}")
+    public void reconcile() {
+        LocalDate today = LocalDate.now();
+        List<DailyCapacity> rows = dailyCapacityRepository.findByDateGreaterThanEqual(today);
+        Set<Long> present = new HashSet<>();
+        for (DailyCapacity row : rows) {
+            long key = key(idOf(row.getMunicipality()), row.getDate().toEpochDay());
+            counters.put(key, row.getUsed());
+            present.add(key);
+        }
+        // a row created after the query is dropped here and tracked again by its next booking
+        counters.removeIf(key -> !present.contains(key));
+        log.info("Capacity ledger reconciled: rows={} tracked={}", rows.size(), counters.size());
+    }
+
+    private int idOf(String municipality) {
+        return municipalityIds.computeIfAbsent(municipality, name -> nextMunicipalityId.getAndIncrement());
+    }
+
+    private static long key(int municipalityId, long epochDay) {
+        return ((long) municipalityId << 32) | (epochDay & 0xFFFFFFFFL);
+    }
+}
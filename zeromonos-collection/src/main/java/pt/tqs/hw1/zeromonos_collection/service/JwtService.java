@@ -2,8 +2,9 @@ package pt.tqs.hw1.zeromonos_collection.service;
 
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.function.Function;
+import java.util.UUID;
 
 import javax.crypto.SecretKey;
 
@@ -13,37 +14,54 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.io.Decoders;
 import io.jsonwebtoken.security.Keys;
-import lombok.AllArgsConstructor;
-import lombok.NoArgsConstructor;
+import pt.tqs.hw1.zeromonos_collection.auth.ParsedToken;
+import pt.tqs.hw1.zeromonos_collection.entity.User;
 
 @Service
-@NoArgsConstructor
-@AllArgsConstructor
 public class JwtService {
 
-    @Value("${jwt.secret}")
-    private String SECRET_KEY;
+    // key and parser are immutable and thread-safe, so they are built once
+    private final SecretKey secretKey;
+    private final JwtParser parser;
 
-    public String getUsername(String token) {
-        return extractClaim(token, Claims::getSubject);
+    public JwtService(@Value("${jwt.secret}") String secret) {
+        this.secretKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+        this.parser = Jwts.parser().verifyWith(secretKey).build();
     }
 
-    public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
-        return claimsResolver.apply(claims);
+    /**
+     * Verifies the token signature and expiry once and returns every claim
+     * the authentication filter needs.
+     */
+    public ParsedToken parse(String token) {
+        Claims claims = extractAllClaims(token);
+
+        @SuppressWarnings("unchecked")
+        List<String> roles = claims.get("roles", List.class);
+
+        return ParsedToken.builder()
+            .id(claims.getId())
+            .subject(claims.getSubject())
+            .userId(claims.get("uid", Integer.class))
+            .roles(roles == null ? List.of() : List.copyOf(roles))
+            .issuedAt(claims.getIssuedAt())
+            .expiration(claims.getExpiration())
+            .build();
     }
 
     public String generateToken(Map<String, Object> extraClaims, UserDetails userDetails) {
         return Jwts
             .builder()
             .claims(extraClaims)
+            .id(UUID.randomUUID().toString())
             .subject(userDetails.getUsername())
             .issuedAt(new Date(System.currentTimeMillis()))
             .expiration(new Date(System.currentTimeMillis() + 1000 * 60 * 60 * 24))
-            .signWith(getSecretKey(), Jwts.SIG.HS256)
+            .signWith(secretKey, Jwts.SIG.HS256)
             .compact();
     }
 
@@ -53,33 +71,19 @@ public class JwtService {
             .stream()
             .map(GrantedAuthority::getAuthority)
             .toList());
+        if (userDetails instanceof User user && user.getId() != null) {
+            claims.put("uid", user.getId());
+        }
 
         return generateToken(claims, userDetails);
     }
 
-    public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = getUsername(token);
-        return username.equals(userDetails.getUsername()) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return getExpirationDate(token).before(new Date());
-    }
-
-    private Date getExpirationDate(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private SecretKey getSecretKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(SECRET_KEY);
-        return Keys.hmacShaKeyFor(keyBytes);
+    public boolean isTokenValid(ParsedToken token, UserDetails userDetails) {
+        return token.getSubject().equals(userDetails.getUsername()) && !token.isExpired();
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts
-            .parser()
-            .verifyWith(getSecretKey())
-            .build()
+        return parser
             .parseSignedClaims(token)
             .getPayload();
     }
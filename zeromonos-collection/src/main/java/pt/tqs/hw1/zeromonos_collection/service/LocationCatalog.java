@@ -0,0 +1,138 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.text.Collator;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import lombok.Getter;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.MunicipalityEntry;
+
+/**
+ * Immutable catalog of districts and municipalities, read once from an embedded dataset.
+ * Names are matched ignoring case, accents and punctuation. Some municipality names exist
+ * in more than one district (Calheta, Lagoa), so lookups by name alone can be ambiguous.
+ */
+@Service
+@Slf4j
+public class LocationCatalog {
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+
+    @Getter
+    private final List<String> districts;
+    @Getter
+    private final List<MunicipalityEntry> municipalities;
+    // strong validator derived from the dataset bytes, so it only changes with the data
+    @Getter
+    private final String etag;
+
+    private final Map<String, List<MunicipalityEntry>> byMunicipality = new HashMap<>();
+    private final Map<String, List<MunicipalityEntry>> byDistrict = new HashMap<>();
+
+    public LocationCatalog(@Value("${locations.file:classpath:locations/municipalities.csv}") Resource dataset) {
+        byte[] bytes;
+        try (InputStream in = dataset.getInputStream()) {
+            bytes = in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read locations from " + dataset, e);
+        }
+
+        Collator collator = Collator.getInstance(Locale.forLanguageTag("pt-PT"));
+        List<MunicipalityEntry> entries = parse(new String(bytes, StandardCharsets.UTF_8));
+        entries.sort(Comparator.comparing(MunicipalityEntry::getName, collator).thenComparing(MunicipalityEntry::getDistrict, collator));
+        for (MunicipalityEntry entry : entries) {
+            byMunicipality.computeIfAbsent(normalize(entry.getName()), key -> new ArrayList<>()).add(entry);
+            byDistrict.computeIfAbsent(normalize(entry.getDistrict()), key -> new ArrayList<>()).add(entry);
+        }
+
+        this.municipalities = List.copyOf(entries);
+        this.districts = entries.stream().map(MunicipalityEntry::getDistrict).distinct().sorted(collator).toList();
+        this.etag = "\"" + sha256(bytes).substring(0, 32) + "\"";
+        log.info("Loaded location catalog with {} districts and {} municipalities", districts.size(), municipalities.size());
+    }
+
+    // lower-case, accent-free, single spaces: "Vila Nova de Foz Côa" -> "vila nova de foz coa"
+    public static String normalize(String name) {
+        if (name == null) {
+            return "";
+        }
+        String folded = MARKS.matcher(Normalizer.normalize(name, Normalizer.Form.NFD)).replaceAll("");
+        return SEPARATORS.matcher(folded.toLowerCase(Locale.ROOT)).replaceAll(" ").trim();
+    }
+
+    public static boolean sameName(String a, String b) {
+        return normalize(a).equals(normalize(b));
+    }
+
+    public List<MunicipalityEntry> municipalitiesOf(String district) {
+        return List.copyOf(byDistrict.getOrDefault(normalize(district), List.of()));
+    }
+
+    /**
+     * The catalog entry for a municipality, in the given district when one is set.
+     * Empty when unknown, or when the name is ambiguous and no district was given.
+     */
+    public Optional<MunicipalityEntry> find(String district, String municipality) {
+        List<MunicipalityEntry> matches = byMunicipality.getOrDefault(normalize(municipality), List.of());
+        if (district == null || district.isBlank()) {
+            return matches.size() == 1 ? Optional.of(matches.get(0)) : Optional.empty();
+        }
+        return matches.stream().filter(entry -> sameName(entry.getDistrict(), district)).findFirst();
+    }
+
+    // the catalog spelling of a municipality name, in whichever district
+    public Optional<String> municipalityName(String municipality) {
+        List<MunicipalityEntry> matches = byMunicipality.getOrDefault(normalize(municipality), List.of());
+        return matches.isEmpty() ? Optional.empty() : Optional.of(matches.get(0).getName());
+    }
+
+    private static List<MunicipalityEntry> parse(String csv) {
+        List<MunicipalityEntry> entries = new ArrayList<>();
+        boolean header = true;
+        for (String line : new BufferedReader(new StringReader(csv)).lines().toList()) {
+            if (line.isBlank() || line.startsWith("#")) {
+                continue;
+            }
+            if (header) {
+                header = false;
+                continue;
+            }
+            String[] fields = line.split(";");
+            if (fields.length != 2) {
+                throw new IllegalStateException("Malformed location entry: " + line);
+            }
+            entries.add(new MunicipalityEntry(fields[1].trim(), fields[0].trim()));
+        }
+        return entries;
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.regex.Pattern;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.PostalCodeLocation;
+
+/**
+ * Resolves Portuguese postal codes (CP4 "4700" or CP7 "4700-123") to their district and
+ * municipality from an embedded dataset. Entries may be CP4, CP7 or shorter prefixes and
+ * the most specific one that prefixes the code wins.
+ */
+@Service
+@Slf4j
+public class PostalCodeService {
+
+    private static final Pattern FORMAT = Pattern.compile("\\d{4}(-\\d{3})?");
+    private static final Pattern PARTIAL = Pattern.compile("\\d{1,4}(-\\d{0,3})?");
+
+    private record Snapshot(PostalCodeTrie trie, List<String[]> locations) {}
+
+    private final Resource dataset;
+    private final boolean strict;
+    private volatile Snapshot snapshot = new Snapshot(new PostalCodeTrie(), List.of());
+
+    public PostalCodeService(
+        @Value("${postal-codes.file:classpath:postal-codes/cp4.csv}") Resource dataset,
+        @Value("${postal-codes.strict:false}") boolean strict
+    ) {
+        this.dataset = dataset;
+        this.strict = strict;
+    }
+
+    // strict: codes missing from the dataset, or placed elsewhere by it, are rejected
+    // instead of accepted as sent
+    public boolean isStrict() {
+        return strict;
+    }
+
+    @PostConstruct
+    public void load() {
+        long started = System.nanoTime();
+        PostalCodeTrie trie = new PostalCodeTrie();
+        List<String[]> locations = new ArrayList<>();
+        Map<String, Integer> ids = new HashMap<>();
+        int entries = 0;
+
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(dataset.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            boolean header = true;
+            while ((line = reader.readLine()) != null) {
+                if (line.isBlank() || line.startsWith("#")) {
+                    continue;
+                }
+                if (header) {
+                    header = false;
+                    continue;
+                }
+                String[] fields = line.split(";");
+                if (fields.length != 3) {
+                    throw new IllegalStateException("Malformed postal code entry: " + line);
+                }
+                String district = fields[1].trim();
+                String municipality = fields[2].trim();
+                // districts and municipalities repeat a lot; the trie only stores an index
+                int id = ids.computeIfAbsent(district + ";" + municipality, key -> {
+                    locations.add(new String[] {district, municipality});
+                    return locations.size() - 1;
+                });
+                trie.put(digits(fields[0].trim()), id);
+                entries++;
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read postal codes from " + dataset, e);
+        }
+
+        snapshot = new Snapshot(trie, List.copyOf(locations));
+        log.info("Loaded {} postal code entries ({} locations, {} trie nodes, {} KiB) in {} ms",
+            entries, locations.size(), trie.nodeCount(), trie.footprintBytes() / 1024, (System.nanoTime() - started) / 1_000_000);
+    }
+
+    public Optional<PostalCodeLocation> resolve(String postalCode) {
+        if (postalCode == null || !FORMAT.matcher(postalCode).matches()) {
+            throw new IllegalArgumentException("Postal code must look like 1234-567.");
+        }
+        return find(postalCode);
+    }
+
+    // like resolve, but a malformed code is simply not found
+    public Optional<PostalCodeLocation> lookup(String postalCode) {
+        if (postalCode == null || !FORMAT.matcher(postalCode).matches()) {
+            return Optional.empty();
+        }
+        return find(postalCode);
+    }
+
+    private Optional<PostalCodeLocation> find(String postalCode) {
+        Snapshot current = snapshot;
+        String digits = digits(postalCode);
+        int id = current.trie().longestPrefix(digits);
+        if (id < 0) {
+            return Optional.empty();
+        }
+        return Optional.of(location(current, id, postalCode));
+    }
+
+    /**
+     * Dataset entries starting with what the user typed so far, for autocomplete.
+     * When nothing is more specific, the entry that covers the prefix is returned.
+     */
+    public List<PostalCodeLocation> complete(String prefix, int limit) {
+        if (prefix == null || !PARTIAL.matcher(prefix).matches()) {
+            throw new IllegalArgumentException("Postal code prefix must look like 47, 4700 or 4700-1.");
+        }
+        Snapshot current = snapshot;
+        String digits = digits(prefix);
+        List<PostalCodeLocation> matches = new ArrayList<>();
+        current.trie().forEachWithPrefix(digits, limit, (key, id) -> matches.add(location(current, id, format(key))));
+        if (matches.isEmpty()) {
+            int id = current.trie().longestPrefix(digits);
+            if (id >= 0) {
+                matches.add(location(current, id, prefix));
+            }
+        }
+        return matches;
+    }
+
+    private static PostalCodeLocation location(Snapshot snapshot, int id, String postalCode) {
+        String[] location = snapshot.locations().get(id);
+        return new PostalCodeLocation(postalCode, location[0], location[1]);
+    }
+
+    private static String digits(String postalCode) {
+        return postalCode.replace("-", "");
+    }
+
+    private static String format(String digits) {
+        return digits.length() > 4 ? digits.substring(0, 4) + "-" + digits.substring(4) : digits;
+    }
+}
@@ -0,0 +1,102 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.util.Arrays;
+import java.util.function.ObjIntConsumer;
+
+/**
+ * Prefix trie over decimal digits stored in two flat int arrays: ten child slots per
+ * node plus one value slot. Lookups walk at most seven nodes (a CP7 code) with no
+ * allocation, and the footprint is 44 bytes per node. Not thread-safe while being
+ * built; publish it once complete.
+ */
+public final class PostalCodeTrie {
+
+    private static final int RADIX = 10;
+
+    private int[] children = new int[RADIX * 64]; // node * 10 + digit -> child node, 0 = none (root is never a child)
+    private int[] values = new int[64]; // value + 1, 0 = none
+    private int nodes = 1;
+
+    public void put(CharSequence digits, int value) {
+        if (value < 0) {
+            throw new IllegalArgumentException("Values must not be negative.");
+        }
+        int node = 0;
+        for (int i = 0; i < digits.length(); i++) {
+            int slot = node * RADIX + digit(digits.charAt(i));
+            if (children[slot] == 0) {
+                // newNode may replace the array, so it must run before the store
+                int child = newNode();
+                children[slot] = child;
+            }
+            node = children[slot];
+        }
+        values[node] = value + 1;
+    }
+
+    // value of the longest stored key that prefixes digits, or -1
+    public int longestPrefix(CharSequence digits) {
+        int node = 0;
+        int found = values[0] - 1;
+        for (int i = 0; i < digits.length(); i++) {
+            node = children[node * RADIX + digit(digits.charAt(i))];
+            if (node == 0) {
+                break;
+            }
+            if (values[node] != 0) {
+                found = values[node] - 1;
+            }
+        }
+        return found;
+    }
+
+    // stored keys starting with prefix, in ascending order, until limit is reached
+    public void forEachWithPrefix(CharSequence prefix, int limit, ObjIntConsumer<String> action) {
+        int node = 0;
+        for (int i = 0; i < prefix.length(); i++) {
+            node = children[node * RADIX + digit(prefix.charAt(i))];
+            if (node == 0) {
+                return;
+            }
+        }
+        collect(node, new StringBuilder(prefix), new int[] {limit}, action);
+    }
+
+    public int nodeCount() {
+        return nodes;
+    }
+
+    public long footprintBytes() {
+        return (long) children.length * Integer.BYTES + (long) values.length * Integer.BYTES;
+    }
+
+    private void collect(int node, StringBuilder key, int[] remaining, ObjIntConsumer<String> action) {
+        if (values[node] != 0) {
+            action.accept(key.toString(), values[node] - 1);
+            remaining[0]--;
+        }
+        for (int d = 0; d < RADIX && remaining[0] > 0; d++) {
+            int child = children[node * RADIX + d];
+            if (child != 0) {
+                key.append((char) ('0' + d));
+                collect(child, key, remaining, action);
+                key.setLength(key.length() - 1);
+            }
+        }
+    }
+
+    private int newNode() {
+        if (nodes == values.length) {
+            values = Arrays.copyOf(values, nodes * 2);
+            children = Arrays.copyOf(children, nodes * 2 * RADIX);
+        }
+        return nodes++;
+    }
+
+    private static int digit(char c) {
+        if (c < '0' || c > '9') {
+            throw new IllegalArgumentException("Postal code keys are digits only.");
+        }
+        return c - '0';
+    }
+}
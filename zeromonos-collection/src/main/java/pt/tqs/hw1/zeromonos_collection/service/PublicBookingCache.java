@@ -0,0 +1,91 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.PublicBookingView;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+
+/**
+ * Bounded cache of the public booking view, kept as the JSON bytes sent to the
+ * client together with their ETag, keyed by booking token. A hit touches neither
+ * the database nor Jackson. {@link BookingsService#updateState} evicts the token
+ * once its transaction commits, so a reader can never cache the old state again.
+ */
+@Service
+@Slf4j
+public class PublicBookingCache {
+
+    public record CachedBooking(byte[] body, String etag) {}
+
+    private final BookingRepository bookingRepository;
+    private final ObjectMapper objectMapper;
+    private final Cache<String, CachedBooking> cache;
+
+    public PublicBookingCache(
+        BookingRepository bookingRepository,
+        ObjectMapper objectMapper,
+        MeterRegistry meterRegistry,
+        @Value("${public-bookings.cache.ttl:10m}") Duration ttl,
+        @Value("${public-bookings.cache.max-size:10000}") long maxSize
+    ) {
+        this.bookingRepository = bookingRepository;
+        this.objectMapper = objectMapper;
+        this.cache = Caffeine.newBuilder()
+            .expireAfterWrite(ttl)
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "public-bookings");
+    }
+
+    // unknown tokens are not cached, so a booking created right after a miss is found
+    public Optional<CachedBooking> get(String token) {
+        return Optional.ofNullable(cache.get(token, this::load));
+    }
+
+    public void evictAfterCommit(String token) {
+        log.debug("Evicting cached public booking for token={}", token);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            cache.invalidate(token);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                cache.invalidate(token);
+            }
+        });
+    }
+
+    public Cache<String, CachedBooking> getCache() {
+        return cache;
+    }
+
+    private CachedBooking load(String token) {
+        return bookingRepository.findPublicViewByToken(token).map(this::serialize).orElse(null);
+    }
+
+    private CachedBooking serialize(PublicBookingView view) {
+        try {
+            byte[] body = objectMapper.writeValueAsBytes(view);
+            return new CachedBooking(body, "\"" + DigestUtils.md5DigestAsHex(body) + "\"");
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize public booking view", e);
+        }
+    }
+}
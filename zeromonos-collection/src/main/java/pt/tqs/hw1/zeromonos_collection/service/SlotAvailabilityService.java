@@ -0,0 +1,389 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.ToIntFunction;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingPolicy;
+import pt.tqs.hw1.zeromonos_collection.entity.DailyCapacity;
+import pt.tqs.hw1.zeromonos_collection.entity.DayAvailability;
+import pt.tqs.hw1.zeromonos_collection.entity.MunicipalityEntry;
+import pt.tqs.hw1.zeromonos_collection.entity.SlotSuggestion;
+import pt.tqs.hw1.zeromonos_collection.entity.State;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.DailyCapacityRepository;
+
+/**
+ * Per (municipality, date) counts of active bookings in each slot, kept in memory with a
+ * bitmap of the slots that still have room. A day is loaded with one grouped query on
+ * its first read; after that reservations and releases move the counts by +1/-1 when
+ * their transaction commits, and reads answer from memory.
+ * A load that overlaps a change (registered before it started and not yet applied, or
+ * registered while it ran) may or may not have seen it, so it answers its own read but
+ * is not kept.
+ * The counts only cover bookings: spots held through {@link SlotHoldService} are taken
+ * off when an answer is built, so a reload can neither lose nor double count a hold.
+ */
+@Service
+@Slf4j
+public class SlotAvailabilityService {
+
+    private record DayKey(String municipality, LocalDate date) {}
+
+    // immutable once published: a change publishes a copy
+    private static final class DaySlots {
+
+        private final BookingPolicy policy;
+        private final int[] booked;
+        private final BitSet open;
+        private int total;
+        private List<LocalTime> available;
+
+        DaySlots(BookingPolicy policy) {
+            this.policy = policy;
+            this.booked = new int[policy.getSlots().size()];
+            this.open = new BitSet(booked.length);
+        }
+
+        // counts are only written before the instance is published
+        DaySlots refresh() {
+            List<LocalTime> slots = policy.getSlots();
+            open.clear();
+            for (int i = 0; i < booked.length; i++) {
+                if (booked[i] < policy.getSlotCapacity()) {
+                    open.set(i);
+                }
+            }
+            available = open.cardinality() == slots.size() ? slots : availableWith(time -> 0);
+            return this;
+        }
+
+        DaySlots plus(LocalTime time, int delta) {
+            DaySlots next = new DaySlots(policy);
+            System.arraycopy(booked, 0, next.booked, 0, booked.length);
+            next.total = Math.max(0, total + delta);
+            int slot = policy.slotIndex(time);
+            if (slot >= 0) {
+                next.booked[slot] = Math.max(0, booked[slot] + delta);
+            }
+            return next.refresh();
+        }
+
+        List<LocalTime> availableWith(ToIntFunction<LocalTime> held) {
+            List<LocalTime> slots = policy.getSlots();
+            List<LocalTime> times = new ArrayList<>(open.cardinality());
+            for (int i = open.nextSetBit(0); i >= 0; i = open.nextSetBit(i + 1)) {
+                if (booked[i] + held.applyAsInt(slots.get(i)) < policy.getSlotCapacity()) {
+                    times.add(slots.get(i));
+                }
+            }
+            return List.copyOf(times);
+        }
+    }
+
+    // changes are tracked per stripe of days; days sharing a stripe only make a load more cautious
+    private static final int CHANGE_STRIPES = 1024;
+
+    // longest range answered by getAvailability, in days counting both ends
+    public static final int MAX_RANGE_DAYS = 62;
+    public static final int MAX_SUGGESTIONS = 20;
+
+    private static final Comparator<SlotSuggestion> EARLIEST_FIRST = Comparator
+        .comparing(SlotSuggestion::getDate)
+        .thenComparing(SlotSuggestion::getTime)
+        .thenComparing(SlotSuggestion::getMunicipality);
+
+    private final BookingRepository bookingRepository;
+    private final DailyCapacityRepository dailyCapacityRepository;
+    private final BookingPolicyService bookingPolicyService;
+    private final SlotHoldService slotHoldService;
+    private final LocationCatalog locationCatalog;
+    private final Cache<DayKey, DaySlots> days;
+    // per stripe: changes registered so far, and those registered but not yet applied
+    private final AtomicLongArray changeEpochs = new AtomicLongArray(CHANGE_STRIPES);
+    private final AtomicIntegerArray pendingChanges = new AtomicIntegerArray(CHANGE_STRIPES);
+    private final int searchHorizonDays;
+    private final int searchWindowDays;
+
+    public SlotAvailabilityService(
+        BookingRepository bookingRepository,
+        DailyCapacityRepository dailyCapacityRepository,
+        BookingPolicyService bookingPolicyService,
+        SlotHoldService slotHoldService,
+        LocationCatalog locationCatalog,
+        MeterRegistry meterRegistry,
+        @Value("${slots.cache.ttl:10m}") Duration ttl,
+        @Value("${slots.cache.max-size:10000}") long maxSize,
+        @Value("${slots.search.horizon-days:90}") int searchHorizonDays,
+        @Value("${slots.search.window-days:14}") int searchWindowDays
+    ) {
+        this.searchHorizonDays = searchHorizonDays;
+        this.searchWindowDays = Math.min(searchWindowDays, MAX_RANGE_DAYS);
+        this.bookingRepository = bookingRepository;
+        this.dailyCapacityRepository = dailyCapacityRepository;
+        this.bookingPolicyService = bookingPolicyService;
+        this.slotHoldService = slotHoldService;
+        this.locationCatalog = locationCatalog;
+        // the ttl bounds drift from bookings written outside this service; it runs from the
+        // load, applying a change does not push it back
+        this.days = Caffeine.newBuilder()
+            .expireAfter(Expiry.creating((DayKey key, DaySlots day) -> ttl))
+            .maximumSize(maxSize)
+            .recordStats()
+            .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, days, "slots");
+    }
+
+    public List<LocalTime> getAvailableTimes(String municipality, LocalDate date) {
+        BookingPolicy policy = bookingPolicyService.policyFor(municipality);
+        if (policy.isClosedOn(date)) {
+            return List.of();
+        }
+
+        DayKey key = new DayKey(municipality, date);
+        DaySlots day = cachedDay(key, policy);
+        if (!day.policy.equals(policy)) {
+            // the municipality's policy changed since this day was loaded
+            days.invalidate(key);
+            day = cachedDay(key, policy);
+        }
+        int held = slotHoldService.heldForDay(municipality, date);
+        if (day.total + held >= policy.getDailyCapacity()) {
+            return List.of();
+        }
+        if (held == 0) {
+            return day.available;
+        }
+        return day.availableWith(time -> slotHoldService.heldForSlot(municipality, date, time));
+    }
+
+    /**
+     * Free slots and remaining daily capacity for every open day in [from, to], from a single
+     * GROUP BY over (date, time). Closed days are left out and never reach the query.
+     */
+    public List<DayAvailability> getAvailability(String municipality, LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("Range end must not be before its start.");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_RANGE_DAYS) {
+            throw new IllegalArgumentException("Range must not exceed " + MAX_RANGE_DAYS + " days.");
+        }
+        LocalDate today = LocalDate.now();
+        LocalDate start = from.isBefore(today) ? today : from;
+
+        BookingPolicy policy = bookingPolicyService.policyFor(municipality);
+        List<LocalDate> openDays = new ArrayList<>();
+        for (LocalDate d = start; !d.isAfter(to); d = d.plusDays(1)) {
+            if (!policy.isClosedOn(d)) {
+                openDays.add(d);
+            }
+        }
+        if (openDays.isEmpty()) {
+            return List.of();
+        }
+
+        Map<LocalDate, DaySlots> counted = new HashMap<>();
+        List<Object[]> rows = bookingRepository.countActiveByDateAndTime(
+            municipality, openDays.get(0), openDays.get(openDays.size() - 1), State.CANCELED);
+        for (Object[] row : rows) {
+            DaySlots day = counted.computeIfAbsent((LocalDate) row[0], d -> new DaySlots(policy));
+            int count = ((Number) row[2]).intValue();
+            day.total += count;
+            int slot = policy.slotIndex((LocalTime) row[1]);
+            if (slot >= 0) {
+                day.booked[slot] = count;
+            }
+        }
+
+        List<DayAvailability> result = new ArrayList<>(openDays.size());
+        for (LocalDate date : openDays) {
+            DaySlots day = counted.get(date);
+            int held = slotHoldService.heldForDay(municipality, date);
+            int remaining = Math.max(0, policy.getDailyCapacity() - (day == null ? 0 : day.total) - held);
+            List<LocalTime> times;
+            if (remaining == 0) {
+                times = List.of();
+            } else if (day == null && held == 0) {
+                times = policy.getSlots();
+            } else {
+                times = (day == null ? new DaySlots(policy) : day).refresh()
+                    .availableWith(time -> slotHoldService.heldForSlot(municipality, date, time));
+            }
+            result.add(DayAvailability.builder()
+                .date(date)
+                .availableTimes(times)
+                .remainingCapacity(remaining)
+                .build());
+        }
+        return result;
+    }
+
+    /**
+     * Earliest free (date, time) slots from now on, optionally also in the other
+     * municipalities of a district, as listed in the {@link LocationCatalog}. Each window of
+     * the horizon is screened with one query on the daily capacity ledger: full days are
+     * skipped, days without a ledger row have no booking yet and offer every slot, and only
+     * partially booked days are read slot by slot (from memory when cached). The scan stops
+     * at the first date that completes the answer.
+     */
+    public List<SlotSuggestion> findNextAvailable(String municipality, String district, int limit) {
+        if (limit < 1 || limit > MAX_SUGGESTIONS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_SUGGESTIONS + ".");
+        }
+        Set<String> municipalities = new LinkedHashSet<>();
+        municipalities.add(municipality);
+        if (district != null && !district.isBlank()) {
+            List<MunicipalityEntry> inDistrict = locationCatalog.municipalitiesOf(district);
+            if (inDistrict.isEmpty()) {
+                throw new IllegalArgumentException("Unknown district " + district + ".");
+            }
+            inDistrict.forEach(entry -> municipalities.add(entry.getName()));
+        }
+        Map<String, BookingPolicy> policies = new HashMap<>();
+        municipalities.forEach(m -> policies.put(m, bookingPolicyService.policyFor(m)));
+
+        List<SlotSuggestion> found = new ArrayList<>();
+        LocalDate today = LocalDate.now();
+        LocalTime now = LocalTime.now();
+        LocalDate horizon = today.plusDays(searchHorizonDays);
+        for (LocalDate from = today; !from.isAfter(horizon) && found.size() < limit;
+                from = from.plusDays(searchWindowDays)) {
+            LocalDate to = from.plusDays(searchWindowDays - 1L);
+            if (to.isAfter(horizon)) {
+                to = horizon;
+            }
+
+            Map<DayKey, Integer> used = new HashMap<>();
+            for (DailyCapacity row : dailyCapacityRepository.findByMunicipalityInAndDateBetween(municipalities, from, to)) {
+                used.put(new DayKey(row.getMunicipality(), row.getDate()), row.getUsed());
+            }
+
+            // every slot on an earlier date is earlier than any slot on a later one,
+            // so a date's candidates only need sorting among themselves
+            for (LocalDate date = from; !date.isAfter(to) && found.size() < limit; date = date.plusDays(1)) {
+                List<SlotSuggestion> candidates = new ArrayList<>();
+                for (String m : municipalities) {
+                    for (LocalTime time : freeTimes(m, date, policies.get(m), used.get(new DayKey(m, date)))) {
+                        if (date.equals(today) && !time.isAfter(now)) {
+                            continue;
+                        }
+                        candidates.add(new SlotSuggestion(m, date, time));
+                    }
+                }
+                candidates.sort(EARLIEST_FIRST);
+                found.addAll(candidates.subList(0, Math.min(candidates.size(), limit - found.size())));
+            }
+        }
+        return found;
+    }
+
+    // used is the day's ledger count, null when no booking has created the row yet
+    private List<LocalTime> freeTimes(String municipality, LocalDate date, BookingPolicy policy, Integer used) {
+        if (policy.isClosedOn(date)) {
+            return List.of();
+        }
+        if (used != null && used > 0) {
+            // admission rechecks the slot, so a stale answer here only costs a retry
+            return used >= policy.getDailyCapacity() ? List.of() : getAvailableTimes(municipality, date);
+        }
+        int held = slotHoldService.heldForDay(municipality, date);
+        if (held == 0) {
+            return policy.getSlots();
+        }
+        if (held >= policy.getDailyCapacity()) {
+            return List.of();
+        }
+        return new DaySlots(policy).refresh()
+            .availableWith(time -> slotHoldService.heldForSlot(municipality, date, time));
+    }
+
+    /**
+     * Registers a reservation (+1) or release (-1) of a slot made in the current transaction.
+     * It is applied to the day in memory once the transaction commits and dropped on rollback.
+     * Outside a transaction the change is already committed and cannot be ordered against a
+     * load, so the day is dropped instead (an in-flight load is waited for and dropped too).
+     */
+    public void onSlotChanged(String municipality, LocalDate date, LocalTime time, int delta) {
+        DayKey key = new DayKey(municipality, date);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            days.invalidate(key);
+            return;
+        }
+        int stripe = stripe(key);
+        pendingChanges.incrementAndGet(stripe);
+        changeEpochs.incrementAndGet(stripe);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                try {
+                    if (status == STATUS_COMMITTED) {
+                        // waits for a load of the same day in flight, which then gets the change too
+                        days.asMap().computeIfPresent(key, (k, day) -> day.plus(time, delta));
+                    }
+                } finally {
+                    pendingChanges.decrementAndGet(stripe);
+                }
+            }
+        });
+    }
+
+    public void invalidateAll() {
+        days.invalidateAll();
+    }
+
+    private DaySlots cachedDay(DayKey key, BookingPolicy policy) {
+        DaySlots[] loaded = new DaySlots[1];
+        DaySlots day = days.get(key, k -> {
+            int stripe = stripe(k);
+            long epoch = changeEpochs.get(stripe);
+            boolean settled = pendingChanges.get(stripe) == 0;
+            loaded[0] = load(k, policy);
+            // returning null answers this read without keeping the day
+            return settled && changeEpochs.get(stripe) == epoch ? loaded[0] : null;
+        });
+        return day != null ? day : loaded[0];
+    }
+
+    private DaySlots load(DayKey key, BookingPolicy policy) {
+        DaySlots day = new DaySlots(policy);
+        for (Object[] row : bookingRepository.countActiveByTime(key.municipality(), key.date(), State.CANCELED)) {
+            int count = ((Number) row[1]).intValue();
+            day.total += count;
+            int slot = policy.slotIndex((LocalTime) row[0]);
+            if (slot >= 0) {
+                day.booked[slot] = count;
+            }
+        }
+        log.debug("Slot availability loaded for municipality={} date={}", key.municipality(), key.date());
+        return day.refresh();
+    }
+
+    private static int stripe(DayKey key) {
+        int h = key.hashCode();
+        return (h ^ (h >>> 16)) & (CHANGE_STRIPES - 1);
+    }
+}
@@ -0,0 +1,148 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.SlotHold;
+
+/**
+ * Short-lived claims on a slot. Held spots count against the day and slot capacities of
+ * this node until the hold is converted into a booking, released, or expires. Holds live
+ * in memory only, so a restart simply drops them without leaving ledger rows behind.
+ * {@link SlotAvailabilityService} reads the held counts when it answers, rather than
+ * folding holds into its cached booking counts.
+ */
+@Service
+@Slf4j
+public class SlotHoldService {
+
+    private record DayKey(String municipality, LocalDate date) {}
+
+    private record SlotKey(String municipality, LocalDate date, LocalTime time) {}
+
+    private final Duration ttl;
+    private final int maxPerOwner;
+
+    private final Map<String, SlotHold> holds = new ConcurrentHashMap<>();
+    private final Map<DayKey, Integer> heldPerDay = new ConcurrentHashMap<>();
+    private final Map<SlotKey, Integer> heldPerSlot = new ConcurrentHashMap<>();
+    private final Map<String, Integer> heldPerOwner = new ConcurrentHashMap<>();
+    private final HashedTimingWheel<String> expiries;
+
+    public SlotHoldService(
+        @Value("${holds.ttl:2m}") Duration ttl,
+        @Value("${holds.max-per-user:3}") int maxPerOwner
+    ) {
+        this.ttl = ttl;
+        this.maxPerOwner = maxPerOwner;
+        // 1s ticks, 512 buckets: a hold is found by the tick that follows its expiry
+        this.expiries = new HashedTimingWheel<>(1000, 512, System.currentTimeMillis());
+    }
+
+    /**
+     * Claims one spot if the committed bookings plus the holds already placed leave room.
+     * The used counts come from the ledgers and are read by the caller just before this.
+     */
+    public SlotHold place(String owner, String municipality, LocalDate date, LocalTime time,
+                          int dayUsed, int dayCapacity, int slotUsed, int slotCapacity) {
+        if (heldPerOwner.merge(owner, 1, Integer::sum) > maxPerOwner) {
+            heldPerOwner.merge(owner, -1, SlotHoldService::decrement);
+            throw new IllegalArgumentException("Too many active holds, book or release one first.");
+        }
+
+        DayKey day = new DayKey(municipality, date);
+        SlotKey slot = new SlotKey(municipality, date, time);
+        boolean[] claimed = new boolean[1];
+        heldPerSlot.compute(slot, (k, held) -> {
+            int current = held == null ? 0 : held;
+            if (slotUsed + current >= slotCapacity) {
+                return held;
+            }
+            heldPerDay.compute(day, (d, dayHeld) -> {
+                int currentDay = dayHeld == null ? 0 : dayHeld;
+                if (dayUsed + currentDay >= dayCapacity) {
+                    return dayHeld;
+                }
+                claimed[0] = true;
+                return currentDay + 1;
+            });
+            return claimed[0] ? Integer.valueOf(current + 1) : held;
+        });
+        if (!claimed[0]) {
+            heldPerOwner.merge(owner, -1, SlotHoldService::decrement);
+            throw new IllegalArgumentException("Time slot " + time + " is fully booked for " + municipality);
+        }
+
+        Instant expiresAt = Instant.now().plus(ttl);
+        SlotHold hold = SlotHold.builder()
+            .id(UUID.randomUUID().toString())
+            .owner(owner)
+            .municipality(municipality)
+            .date(date)
+            .time(time)
+            .expiresAt(expiresAt)
+            .build();
+        holds.put(hold.getId(), hold);
+        expiries.schedule(hold.getId(), expiresAt.toEpochMilli());
+        log.info("Slot hold placed for municipality={} date={} time={}", municipality, date, time);
+        return hold;
+    }
+
+    /** The active hold with this id owned by owner, or null. */
+    public SlotHold find(String holdId, String owner) {
+        SlotHold hold = holds.get(holdId);
+        if (hold == null || !hold.getOwner().equals(owner) || hold.getExpiresAt().isBefore(Instant.now())) {
+            return null;
+        }
+        return hold;
+    }
+
+    /** Drops the hold and frees its spot; false when it was already gone. */
+    public boolean release(String holdId) {
+        SlotHold hold = holds.remove(holdId);
+        if (hold == null) {
+            return false;
+        }
+        heldPerSlot.merge(new SlotKey(hold.getMunicipality(), hold.getDate(), hold.getTime()), -1, SlotHoldService::decrement);
+        heldPerDay.merge(new DayKey(hold.getMunicipality(), hold.getDate()), -1, SlotHoldService::decrement);
+        heldPerOwner.merge(hold.getOwner(), -1, SlotHoldService::decrement);
+        return true;
+    }
+
+    public int heldForDay(String municipality, LocalDate date) {
+        return heldPerDay.getOrDefault(new DayKey(municipality, date), 0);
+    }
+
+    public int heldForSlot(String municipality, LocalDate date, LocalTime time) {
+        return heldPerSlot.getOrDefault(new SlotKey(municipality, date, time), 0);
+    }
+
+    public int size() {
+        return holds.size();
+    }
+
+    @Scheduled(fixedDelayString = "${holds.tick-interval:1000}")
+    public void expireHolds() {
+        expiries.advance(System.currentTimeMillis(), holdId -> {
+            if (release(holdId)) {
+                log.debug("Slot hold expired: {}", holdId);
+            }
+        });
+    }
+
+    // removes the entry once it reaches zero
+    private static Integer decrement(Integer current, Integer delta) {
+        int next = current + delta;
+        return next > 0 ? next : null;
+    }
+}
@@ -0,0 +1,169 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.util.function.LongPredicate;
+
+/**
+ * Map of primitive {@code long} keys to non-negative {@code int} values, split into
+ * independently locked stripes of open-addressing tables. Avoids boxing on the hot path
+ * and keeps contention limited to keys that land on the same stripe.
+ */
+public final class StripedLongIntMap {
+
+    public static final int ABSENT = -1;
+
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, int value);
+    }
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    public StripedLongIntMap(int stripeCount) {
+        if (Integer.bitCount(stripeCount) != 1) {
+            throw new IllegalArgumentException("Stripe count must be a power of two.");
+        }
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe();
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    public int get(long key) {
+        return stripe(key).get(key);
+    }
+
+    public void put(long key, int value) {
+        stripe(key).put(key, value, false);
+    }
+
+    public void putIfAbsent(long key, int value) {
+        stripe(key).put(key, value, true);
+    }
+
+    /** Adds delta (floored at 0) to an existing entry; returns the new value or {@link #ABSENT}. */
+    public int addIfPresent(long key, int delta) {
+        return stripe(key).add(key, delta);
+    }
+
+    public void remove(long key) {
+        stripe(key).removeIf(k -> k == key);
+    }
+
+    public void removeIf(LongPredicate keyFilter) {
+        for (Stripe stripe : stripes) {
+            stripe.removeIf(keyFilter);
+        }
+    }
+
+    public void forEach(EntryConsumer consumer) {
+        for (Stripe stripe : stripes) {
+            stripe.forEach(consumer);
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    private Stripe stripe(long key) {
+        return stripes[(int) (hash(key) >>> 40) & stripeMask];
+    }
+
+    private static long hash(long key) {
+        // murmur3 finalizer
+        key ^= key >>> 33;
+        key *= 0xff51afd7ed558ccdL;
+        key ^= key >>> 33;
+        key *= 0xc4ceb9fe1a85ec53L;
+        return key ^ (key >>> 33);
+    }
+
+    private static final class Stripe {
+
+        private long[] keys = new long[16];
+        private int[] values = new int[16];
+        private boolean[] filled = new boolean[16];
+        private int size;
+
+        synchronized int get(long key) {
+            int slot = find(key);
+            return filled[slot] ? values[slot] : ABSENT;
+        }
+
+        synchronized void put(long key, int value, boolean onlyIfAbsent) {
+            int slot = find(key);
+            if (filled[slot]) {
+                if (!onlyIfAbsent) {
+                    values[slot] = value;
+                }
+                return;
+            }
+            keys[slot] = key;
+            values[slot] = value;
+            filled[slot] = true;
+            if (++size * 2 > keys.length) {
+                rehash(keys.length * 2, k -> true);
+            }
+        }
+
+        synchronized int add(long key, int delta) {
+            int slot = find(key);
+            if (!filled[slot]) {
+                return ABSENT;
+            }
+            values[slot] = Math.max(0, values[slot] + delta);
+            return values[slot];
+        }
+
+        synchronized void removeIf(LongPredicate keyFilter) {
+            rehash(keys.length, keyFilter.negate());
+        }
+
+        synchronized void forEach(EntryConsumer consumer) {
+            for (int i = 0; i < keys.length; i++) {
+                if (filled[i]) {
+                    consumer.accept(keys[i], values[i]);
+                }
+            }
+        }
+
+        synchronized int size() {
+            return size;
+        }
+
+        // linear probing; the table is never more than half full, so a free slot always exists
+        private int find(long key) {
+            int mask = keys.length - 1;
+            int slot = (int) hash(key) & mask;
+            while (filled[slot] && keys[slot] != key) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private void rehash(int capacity, LongPredicate keep) {
+            long[] oldKeys = keys;
+            int[] oldValues = values;
+            boolean[] oldFilled = filled;
+            keys = new long[capacity];
+            values = new int[capacity];
+            filled = new boolean[capacity];
+            size = 0;
+            for (int i = 0; i < oldKeys.length; i++) {
+                if (oldFilled[i] && keep.test(oldKeys[i])) {
+                    int slot = find(oldKeys[i]);
+                    keys[slot] = oldKeys[i];
+                    values[slot] = oldValues[i];
+                    filled[slot] = true;
+                    size++;
+                }
+            }
+        }
+    }
+}
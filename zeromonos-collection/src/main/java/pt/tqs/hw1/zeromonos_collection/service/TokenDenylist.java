@@ -0,0 +1,49 @@
+package pt.tqs.hw1.zeromonos_collection.service;
+
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * In-memory set of revoked token ids ({@code jti}). Each entry only lives until the
+ * token would have expired anyway, so the set stays as small as the number of
+ * logouts within one token lifetime.
+ */
+@Service
+@Slf4j
+public class TokenDenylist {
+
+    // jti -> expiry in epoch millis
+    private final Map<String, Long> revoked = new ConcurrentHashMap<>();
+
+    public void revoke(String tokenId, Date expiresAt) {
+        if (tokenId == null || expiresAt == null) {
+            return;
+        }
+        revoked.put(tokenId, expiresAt.getTime());
+        log.info("Token revoked until={}", expiresAt);
+    }
+
+    public boolean isRevoked(String tokenId) {
+        if (tokenId == null) {
+            return false;
+        }
+        Long expiresAt = revoked.get(tokenId);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
+
+    public int size() {
+        return revoked.size();
+    }
+
+    @Scheduled(fixedDelayString = "${jwt.denylist.purge-interval:60000}")
+    public void purgeExpired() {
+        long now = System.currentTimeMillis();
+        revoked.values().removeIf(expiresAt -> expiresAt <= now);
+    }
+}
@@ -0,0 +1,172 @@
+-- dictionary-encodes booking.district and booking.municipality: each name is
+-- stored once here and the booking rows keep a smallint reference to it.
+-- Ids are fixed by this script; new names get new ids in a later migration.
+-- Municipalities are keyed on (district, name): Calheta and Lagoa exist in two
+-- districts and have one entry in each. A municipality id numbers the name, so
+-- both entries share it and a booking's (district_id, municipality_id) pair is
+-- the reference, which also keeps a municipality within its district.
+-- The names must match locations/municipalities.csv, which the application
+-- validates against; BookingRepositoryTest checks both lists are the same.
+-- daily_capacity, slot_capacity and municipality_policy deliberately keep their
+-- varchar municipality column: they hold one row per day or per municipality,
+-- not per booking, so the ids would save little.
+
+create table district (
+    id smallint not null,
+    name varchar(64) not null,
+    primary key (id),
+    constraint uk_district_name unique (name)
+);
+
+create table municipality (
+    id smallint not null,
+    district_id smallint not null,
+    name varchar(64) not null,
+    primary key (district_id, id),
+    constraint uk_municipality_district_name unique (district_id, name),
+    constraint fk_municipality_district foreign key (district_id) references district (id)
+);
+
+insert into district (id, name) values
+    (1, 'Açores'), (2, 'Aveiro'), (3, 'Beja'), (4, 'Braga'),
+    (5, 'Bragança'), (6, 'Castelo Branco'), (7, 'Coimbra'), (8, 'Évora'),
+    (9, 'Faro'), (10, 'Guarda'), (11, 'Leiria'), (12, 'Lisboa'),
+    (13, 'Madeira'), (14, 'Portalegre'), (15, 'Porto'), (16, 'Santarém'),
+    (17, 'Setúbal'), (18, 'Viana do Castelo'), (19, 'Vila Real'), (20, 'Viseu');
+
+insert into municipality (id, district_id, name) values
+    (1, 16, 'Abrantes'), (2, 2, 'Águeda'), (3, 10, 'Aguiar da Beira'),
+    (4, 8, 'Alandroal'), (5, 2, 'Albergaria-a-Velha'), (6, 9, 'Albufeira'),
+    (7, 17, 'Alcácer do Sal'), (8, 16, 'Alcanena'), (9, 11, 'Alcobaça'),
+    (10, 17, 'Alcochete'), (11, 9, 'Alcoutim'), (12, 12, 'Alenquer'),
+    (13, 5, 'Alfândega da Fé'), (14, 19, 'Alijó'), (15, 9, 'Aljezur'),
+    (16, 3, 'Aljustrel'), (17, 17, 'Almada'), (18, 10, 'Almeida'),
+    (19, 16, 'Almeirim'), (20, 3, 'Almodôvar'), (21, 16, 'Alpiarça'),
+    (22, 14, 'Alter do Chão'), (23, 11, 'Alvaiázere'), (24, 3, 'Alvito'),
+    (25, 12, 'Amadora'), (26, 15, 'Amarante'), (27, 4, 'Amares'),
+    (28, 2, 'Anadia'), (29, 1, 'Angra do Heroísmo'), (30, 11, 'Ansião'),
+    (31, 18, 'Arcos de Valdevez'), (32, 7, 'Arganil'), (33, 20, 'Armamar'),
+    (34, 2, 'Arouca'), (35, 8, 'Arraiolos'), (36, 14, 'Arronches'),
+    (37, 12, 'Arruda dos Vinhos'), (38, 2, 'Aveiro'), (39, 14, 'Avis'),
+    (40, 12, 'Azambuja'), (41, 15, 'Baião'), (42, 4, 'Barcelos'),
+    (43, 3, 'Barrancos'), (44, 17, 'Barreiro'), (45, 11, 'Batalha'),
+    (46, 3, 'Beja'), (47, 6, 'Belmonte'), (48, 16, 'Benavente'),
+    (49, 11, 'Bombarral'), (50, 8, 'Borba'), (51, 19, 'Boticas'),
+    (52, 4, 'Braga'), (53, 5, 'Bragança'), (54, 4, 'Cabeceiras de Basto'),
+    (55, 12, 'Cadaval'), (56, 11, 'Caldas da Rainha'), (57, 1, 'Calheta'),
+    (57, 13, 'Calheta'), (58, 13, 'Câmara de Lobos'), (59, 18, 'Caminha'),
+    (60, 14, 'Campo Maior'), (61, 7, 'Cantanhede'), (62, 5, 'Carrazeda de Ansiães'),
+    (63, 20, 'Carregal do Sal'), (64, 16, 'Cartaxo'), (65, 12, 'Cascais'),
+    (66, 11, 'Castanheira de Pera'), (67, 6, 'Castelo Branco'), (68, 2, 'Castelo de Paiva'),
+    (69, 14, 'Castelo de Vide'), (70, 20, 'Castro Daire'), (71, 9, 'Castro Marim'),
+    (72, 3, 'Castro Verde'), (73, 10, 'Celorico da Beira'), (74, 4, 'Celorico de Basto'),
+    (75, 16, 'Chamusca'), (76, 19, 'Chaves'), (77, 20, 'Cinfães'),
+    (78, 7, 'Coimbra'), (79, 7, 'Condeixa-a-Nova'), (80, 16, 'Constância'),
+    (81, 16, 'Coruche'), (82, 1, 'Corvo'), (83, 6, 'Covilhã'),
+    (84, 14, 'Crato'), (85, 3, 'Cuba'), (86, 14, 'Elvas'),
+    (87, 16, 'Entroncamento'), (88, 2, 'Espinho'), (89, 4, 'Esposende'),
+    (90, 2, 'Estarreja'), (91, 8, 'Estremoz'), (92, 8, 'Évora'),
+    (93, 4, 'Fafe'), (94, 9, 'Faro'), (95, 15, 'Felgueiras'),
+    (96, 3, 'Ferreira do Alentejo'), (97, 16, 'Ferreira do Zêzere'), (98, 7, 'Figueira da Foz'),
+    (99, 10, 'Figueira de Castelo Rodrigo'), (100, 11, 'Figueiró dos Vinhos'), (101, 10, 'Fornos de Algodres'),
+    (102, 5, 'Freixo de Espada à Cinta'), (103, 14, 'Fronteira'), (104, 13, 'Funchal'),
+    (105, 6, 'Fundão'), (106, 14, 'Gavião'), (107, 7, 'Góis'),
+    (108, 16, 'Golegã'), (109, 15, 'Gondomar'), (110, 10, 'Gouveia'),
+    (111, 17, 'Grândola'), (112, 10, 'Guarda'), (113, 4, 'Guimarães'),
+    (114, 1, 'Horta'), (115, 6, 'Idanha-a-Nova'), (116, 2, 'Ílhavo'),
+    (117, 1, 'Lagoa'), (117, 9, 'Lagoa'), (118, 9, 'Lagos'),
+    (119, 1, 'Lajes das Flores'), (120, 1, 'Lajes do Pico'), (121, 20, 'Lamego'),
+    (122, 11, 'Leiria'), (123, 12, 'Lisboa'), (124, 9, 'Loulé'),
+    (125, 12, 'Loures'), (126, 12, 'Lourinhã'), (127, 7, 'Lousã'),
+    (128, 15, 'Lousada'), (129, 16, 'Mação'), (130, 5, 'Macedo de Cavaleiros'),
+    (131, 13, 'Machico'), (132, 1, 'Madalena'), (133, 12, 'Mafra'),
+    (134, 15, 'Maia'), (135, 20, 'Mangualde'), (136, 10, 'Manteigas'),
+    (137, 15, 'Marco de Canaveses'), (138, 11, 'Marinha Grande'), (139, 14, 'Marvão'),
+    (140, 15, 'Matosinhos'), (141, 2, 'Mealhada'), (142, 10, 'Mêda'),
+    (143, 18, 'Melgaço'), (144, 3, 'Mértola'), (145, 19, 'Mesão Frio'),
+    (146, 7, 'Mira'), (147, 7, 'Miranda do Corvo'), (148, 5, 'Miranda do Douro'),
+    (149, 5, 'Mirandela'), (150, 5, 'Mogadouro'), (151, 20, 'Moimenta da Beira'),
+    (152, 17, 'Moita'), (153, 18, 'Monção'), (154, 9, 'Monchique'),
+    (155, 19, 'Mondim de Basto'), (156, 14, 'Monforte'), (157, 19, 'Montalegre'),
+    (158, 8, 'Montemor-o-Novo'), (159, 7, 'Montemor-o-Velho'), (160, 17, 'Montijo'),
+    (161, 8, 'Mora'), (162, 20, 'Mortágua'), (163, 3, 'Moura'),
+    (164, 8, 'Mourão'), (165, 19, 'Murça'), (166, 2, 'Murtosa'),
+    (167, 11, 'Nazaré'), (168, 20, 'Nelas'), (169, 14, 'Nisa'),
+    (170, 1, 'Nordeste'), (171, 11, 'Óbidos'), (172, 3, 'Odemira'),
+    (173, 12, 'Odivelas'), (174, 12, 'Oeiras'), (175, 6, 'Oleiros'),
+    (176, 9, 'Olhão'), (177, 2, 'Oliveira de Azeméis'), (178, 20, 'Oliveira de Frades'),
+    (179, 2, 'Oliveira do Bairro'), (180, 7, 'Oliveira do Hospital'), (181, 16, 'Ourém'),
+    (182, 3, 'Ourique'), (183, 2, 'Ovar'), (184, 15, 'Paços de Ferreira'),
+    (185, 17, 'Palmela'), (186, 7, 'Pampilhosa da Serra'), (187, 15, 'Paredes'),
+    (188, 18, 'Paredes de Coura'), (189, 11, 'Pedrógão Grande'), (190, 7, 'Penacova'),
+    (191, 15, 'Penafiel'), (192, 20, 'Penalva do Castelo'), (193, 6, 'Penamacor'),
+    (194, 20, 'Penedono'), (195, 7, 'Penela'), (196, 11, 'Peniche'),
+    (197, 19, 'Peso da Régua'), (198, 10, 'Pinhel'), (199, 11, 'Pombal'),
+    (200, 1, 'Ponta Delgada'), (201, 13, 'Ponta do Sol'), (202, 18, 'Ponte da Barca'),
+    (203, 18, 'Ponte de Lima'), (204, 14, 'Ponte de Sor'), (205, 14, 'Portalegre'),
+    (206, 8, 'Portel'), (207, 9, 'Portimão'), (208, 15, 'Porto'),
+    (209, 11, 'Porto de Mós'), (210, 13, 'Porto Moniz'), (211, 13, 'Porto Santo'),
+    (212, 4, 'Póvoa de Lanhoso'), (213, 15, 'Póvoa de Varzim'), (214, 1, 'Povoação'),
+    (215, 6, 'Proença-a-Nova'), (216, 8, 'Redondo'), (217, 8, 'Reguengos de Monsaraz'),
+    (218, 20, 'Resende'), (219, 13, 'Ribeira Brava'), (220, 19, 'Ribeira de Pena'),
+    (221, 1, 'Ribeira Grande'), (222, 16, 'Rio Maior'), (223, 19, 'Sabrosa'),
+    (224, 10, 'Sabugal'), (225, 16, 'Salvaterra de Magos'), (226, 20, 'Santa Comba Dão'),
+    (227, 13, 'Santa Cruz'), (228, 1, 'Santa Cruz da Graciosa'), (229, 1, 'Santa Cruz das Flores'),
+    (230, 2, 'Santa Maria da Feira'), (231, 19, 'Santa Marta de Penaguião'), (232, 13, 'Santana'),
+    (233, 16, 'Santarém'), (234, 17, 'Santiago do Cacém'), (235, 15, 'Santo Tirso'),
+    (236, 9, 'São Brás de Alportel'), (237, 2, 'São João da Madeira'), (238, 20, 'São João da Pesqueira'),
+    (239, 20, 'São Pedro do Sul'), (240, 1, 'São Roque do Pico'), (241, 13, 'São Vicente'),
+    (242, 16, 'Sardoal'), (243, 20, 'Sátão'), (244, 10, 'Seia'),
+    (245, 17, 'Seixal'), (246, 20, 'Sernancelhe'), (247, 3, 'Serpa'),
+    (248, 6, 'Sertã'), (249, 17, 'Sesimbra'), (250, 17, 'Setúbal'),
+    (251, 2, 'Sever do Vouga'), (252, 9, 'Silves'), (253, 17, 'Sines'),
+    (254, 12, 'Sintra'), (255, 12, 'Sobral de Monte Agraço'), (256, 7, 'Soure'),
+    (257, 14, 'Sousel'), (258, 7, 'Tábua'), (259, 20, 'Tabuaço'),
+    (260, 20, 'Tarouca'), (261, 9, 'Tavira'), (262, 4, 'Terras de Bouro'),
+    (263, 16, 'Tomar'), (264, 20, 'Tondela'), (265, 5, 'Torre de Moncorvo'),
+    (266, 16, 'Torres Novas'), (267, 12, 'Torres Vedras'), (268, 10, 'Trancoso'),
+    (269, 15, 'Trofa'), (270, 2, 'Vagos'), (271, 2, 'Vale de Cambra'),
+    (272, 18, 'Valença'), (273, 15, 'Valongo'), (274, 19, 'Valpaços'),
+    (275, 1, 'Velas'), (276, 8, 'Vendas Novas'), (277, 8, 'Viana do Alentejo'),
+    (278, 18, 'Viana do Castelo'), (279, 3, 'Vidigueira'), (280, 4, 'Vieira do Minho'),
+    (281, 1, 'Vila da Praia da Vitória'), (282, 6, 'Vila de Rei'), (283, 9, 'Vila do Bispo'),
+    (284, 15, 'Vila do Conde'), (285, 1, 'Vila do Porto'), (286, 5, 'Vila Flor'),
+    (287, 12, 'Vila Franca de Xira'), (288, 1, 'Vila Franca do Campo'), (289, 16, 'Vila Nova da Barquinha'),
+    (290, 18, 'Vila Nova de Cerveira'), (291, 4, 'Vila Nova de Famalicão'), (292, 10, 'Vila Nova de Foz Côa'),
+    (293, 15, 'Vila Nova de Gaia'), (294, 20, 'Vila Nova de Paiva'), (295, 7, 'Vila Nova de Poiares'),
+    (296, 19, 'Vila Pouca de Aguiar'), (297, 19, 'Vila Real'), (298, 9, 'Vila Real de Santo António'),
+    (299, 6, 'Vila Velha de Ródão'), (300, 4, 'Vila Verde'), (301, 8, 'Vila Viçosa'),
+    (302, 5, 'Vimioso'), (303, 5, 'Vinhais'), (304, 20, 'Viseu'),
+    (305, 4, 'Vizela'), (306, 20, 'Vouzela');
+
+alter table booking add column district_id smallint;
+alter table booking add column municipality_id smallint;
+
+-- rows whose names are not in the dictionary, or whose municipality is not in
+-- their district, are left null and stop the migration at the not null below;
+-- fix or remove them first
+update booking set district_id = (select d.id from district d where lower(d.name) = lower(booking.district));
+update booking set municipality_id = (select m.id from municipality m
+    where m.district_id = booking.district_id and lower(m.name) = lower(booking.municipality));
+
+alter table booking alter column district_id set not null;
+alter table booking alter column municipality_id set not null;
+
+drop index idx_booking_municipality_date_time;
+drop index idx_booking_municipality_id;
+drop index idx_booking_district_id;
+
+alter table booking drop column district;
+alter table booking drop column municipality;
+
+-- same access paths as V2, now on the integer columns. PostgreSQL does not
+-- index the referencing side of a foreign key, so on PostgreSQL these are also
+-- what serves lookups by district_id and municipality_id; H2 adds its own
+-- index for every foreign key regardless.
+create index idx_booking_municipality_date_time on booking (municipality_id, date, time);
+create index idx_booking_municipality_id on booking (municipality_id, id);
+create index idx_booking_district_id on booking (district_id, id);
+
+alter table booking add constraint fk_booking_district foreign key (district_id) references district (id);
+alter table booking add constraint fk_booking_municipality foreign key (district_id, municipality_id)
+    references municipality (district_id, id);
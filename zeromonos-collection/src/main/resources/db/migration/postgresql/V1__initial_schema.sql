@@ -0,0 +1,68 @@
+-- schema as previously generated by Hibernate (ddl-auto) for PostgreSQL
+
+create sequence users_seq start with 1 increment by 50;
+
+create table users (
+    id integer not null,
+    email varchar(255) not null,
+    name varchar(255),
+    password varchar(255),
+    role varchar(255) check (role in ('CITIZEN','STAFF')),
+    primary key (id),
+    constraint uk_users_email unique (email)
+);
+
+create table booking (
+    id bigint generated by default as identity,
+    district varchar(255) not null,
+    municipality varchar(255) not null,
+    village varchar(255) not null,
+    postal_code varchar(255) not null,
+    date date not null,
+    time time(6) not null,
+    description varchar(255) not null,
+    token varchar(255) not null unique,
+    state varchar(255) not null check (state in ('ASSIGNED','CANCELED','DONE','IN_PROGRESS','RECEIVED')),
+    created_by varchar(255) not null,
+    primary key (id)
+);
+
+create table booking_state_history (
+    id bigint generated by default as identity,
+    booking_id bigint not null,
+    state varchar(255) not null check (state in ('ASSIGNED','CANCELED','DONE','IN_PROGRESS','RECEIVED')),
+    timestamp timestamp(6) not null,
+    changed_by varchar(255) not null,
+    primary key (id)
+);
+
+create table daily_capacity (
+    id bigint generated by default as identity,
+    municipality varchar(255) not null,
+    date date not null,
+    used integer not null,
+    primary key (id),
+    constraint uk_daily_capacity_municipality_date unique (municipality, date)
+);
+
+create table slot_capacity (
+    id bigint generated by default as identity,
+    municipality varchar(255) not null,
+    date date not null,
+    time time(6) not null,
+    used integer not null,
+    primary key (id),
+    constraint uk_slot_capacity_municipality_date_time unique (municipality, date, time)
+);
+
+create table municipality_policy (
+    id bigint generated by default as identity,
+    municipality varchar(255) not null unique,
+    daily_capacity integer not null,
+    slot_capacity integer not null,
+    open_time time(6) not null,
+    close_time time(6) not null,
+    slot_minutes integer not null,
+    closed_days varchar(255),
+    primary key (id)
+);
@@ -0,0 +1,18 @@
+-- one index per repository access path; the unique constraints in V1 already
+-- cover booking.token, users.email, and the daily/slot capacity lookups
+
+-- findByMunicipalityAndDate, count*ByMunicipalityAndDate*, countActiveByTime,
+-- countActiveByDateAndTime (date range scan within a municipality)
+create index idx_booking_municipality_date_time on booking (municipality, date, time);
+
+-- keyset pages by municipality / district / citizen; the district one also
+-- serves findMunicipalitiesByDistrict
+create index idx_booking_municipality_id on booking (municipality, id);
+create index idx_booking_district_id on booking (district, id);
+create index idx_booking_created_by_id on booking (created_by, id);
+
+-- findByBookingIdOrderByTimestampAsc
+create index idx_history_booking_id_timestamp on booking_state_history (booking_id, timestamp);
+
+-- findByDateGreaterThanEqual (capacity ledger rebuild)
+create index idx_daily_capacity_date on daily_capacity (date);
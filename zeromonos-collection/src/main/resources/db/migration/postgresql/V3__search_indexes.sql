@@ -0,0 +1,2 @@
+-- staff search by date range without a municipality
+create index idx_booking_date on booking (date);
@@ -1,5 +1,6 @@
 package pt.tqs.hw1.zeromonos_collection.authentication_tests;
 
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -104,4 +105,57 @@ class AuthenticationControllerTest {
             .andExpect(status().isConflict());
         
     }
+
+    @Test
+    @DisplayName("Registering an email that differs only in case should conflict")
+    void testRegisterDuplicateEmailDifferentCase() throws Exception {
+        RegisterRequest register = RegisterRequest.builder()
+            .name("Bob")
+            .email("bob@email.com")
+            .password("pass")
+            .build();
+
+        mockMvc.perform(post("/api/v1/auth/register")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(register))
+            .queryParam("role", "CITIZEN"))
+            .andExpect(status().isOk());
+
+        register.setEmail("Bob@Email.com");
+        mockMvc.perform(post("/api/v1/auth/register")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(register))
+            .queryParam("role", "CITIZEN"))
+            .andExpect(status().isConflict());
+    }
+
+    @Test
+    @DisplayName("Logged out tokens are rejected.")
+    void testLogout() throws Exception {
+        RegisterRequest register = RegisterRequest.builder()
+            .name("Bob")
+            .email("bob@email.com")
+            .password("pass")
+            .build();
+
+        String body = mockMvc.perform(post("/api/v1/auth/register")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(register))
+            .queryParam("role", "CITIZEN"))
+            .andExpect(status().isOk())
+            .andReturn().getResponse().getContentAsString();
+        String token = objectMapper.readTree(body).get("token").asText();
+
+        mockMvc.perform(get("/api/v1/bookings/me")
+            .header("Authorization", "Bearer " + token))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(post("/api/v1/auth/logout")
+            .header("Authorization", "Bearer " + token))
+            .andExpect(status().isNoContent());
+
+        mockMvc.perform(get("/api/v1/bookings/me")
+            .header("Authorization", "Bearer " + token))
+            .andExpect(status().isForbidden());
+    }
 }
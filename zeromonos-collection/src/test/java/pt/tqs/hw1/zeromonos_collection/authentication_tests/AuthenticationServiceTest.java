@@ -7,26 +7,33 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import java.sql.SQLException;
+import java.util.Date;
 import java.util.Optional;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import pt.tqs.hw1.zeromonos_collection.auth.AuthenticationRequest;
 import pt.tqs.hw1.zeromonos_collection.auth.AuthenticationResponse;
+import pt.tqs.hw1.zeromonos_collection.auth.ParsedToken;
 import pt.tqs.hw1.zeromonos_collection.auth.RegisterRequest;
 import pt.tqs.hw1.zeromonos_collection.entity.Role;
 import pt.tqs.hw1.zeromonos_collection.entity.User;
 import pt.tqs.hw1.zeromonos_collection.repository.UserRepository;
 import pt.tqs.hw1.zeromonos_collection.service.AuthenticationService;
 import pt.tqs.hw1.zeromonos_collection.service.JwtService;
+import pt.tqs.hw1.zeromonos_collection.service.TokenDenylist;
 
 @ExtendWith(MockitoExtension.class)
 class AuthenticationServiceTest {
@@ -43,6 +50,9 @@ class AuthenticationServiceTest {
     @Mock
     private AuthenticationManager authenticationManager;
 
+    @Mock
+    private TokenDenylist tokenDenylist;
+
     @InjectMocks
     private AuthenticationService service;
     
@@ -58,11 +68,26 @@ class AuthenticationServiceTest {
 
         when(passwordEncoder.encode("pass")).thenReturn("encoded");
         when(jwtService.generateToken(any())).thenReturn("jwt-token");
-        when(userRepository.findByEmail("bob@email.com"))
-            .thenReturn(Optional.empty());
 
         AuthenticationResponse response = service.register(request, Role.CITIZEN);
         assertEquals("jwt-token", response.getToken());
+        verify(userRepository, never()).findByEmail(any());
+    }
+
+    @Test
+    @DisplayName("Test register stores the email normalized.")
+    void testRegisterNormalizesEmail() {
+        RegisterRequest request = RegisterRequest.builder()
+            .name("Bob")
+            .email("  Bob@Email.COM ")
+            .password("pass")
+            .build();
+
+        service.register(request, Role.CITIZEN);
+
+        ArgumentCaptor<User> saved = ArgumentCaptor.forClass(User.class);
+        verify(userRepository).saveAndFlush(saved.capture());
+        assertEquals("bob@email.com", saved.getValue().getEmail());
     }
 
     @Test
@@ -73,12 +98,29 @@ class AuthenticationServiceTest {
             .password("pass")
             .build();
 
-        when(userRepository.findByEmail("bob@email.com"))
-            .thenReturn(Optional.of(User.builder().email("bob@email.com").build()));
+        when(userRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate",
+            new ConstraintViolationException("duplicate", new SQLException(), "PUBLIC.UK_USERS_EMAIL_INDEX_4")));
 
         Exception exception = assertThrows(IllegalStateException.class, () -> service.register(request, Role.CITIZEN));
         assertEquals("Email already registered.", exception.getMessage());
-        verify(userRepository, never()).save(any());
+        verify(jwtService, never()).generateToken(any());
+    }
+
+    @Test
+    @DisplayName("Test other constraint violations are not reported as a taken email.")
+    void registerOtherViolation() {
+        RegisterRequest request = RegisterRequest.builder()
+            .name("Bob")
+            .email("bob@email.com")
+            .password("pass")
+            .build();
+
+        DataIntegrityViolationException violation = new DataIntegrityViolationException("too long",
+            new ConstraintViolationException("too long", new SQLException(), null));
+        when(userRepository.saveAndFlush(any())).thenThrow(violation);
+
+        Exception exception = assertThrows(DataIntegrityViolationException.class, () -> service.register(request, Role.CITIZEN));
+        assertEquals(violation, exception);
     }
 
     @Test
@@ -109,4 +151,19 @@ class AuthenticationServiceTest {
     
         assertEquals("jwt-token", response.getToken());
     }
+
+    @Test
+    @DisplayName("Test user logout revokes the token id.")
+    void testLogout() {
+        Date expiration = new Date(System.currentTimeMillis() + 60_000);
+        when(jwtService.parse("jwt-token")).thenReturn(ParsedToken.builder()
+            .id("jti-1")
+            .subject("bob@email.com")
+            .expiration(expiration)
+            .build());
+
+        service.logout("jwt-token");
+
+        verify(tokenDenylist).revoke("jti-1", expiration);
+    }
 }
@@ -0,0 +1,81 @@
+package pt.tqs.hw1.zeromonos_collection.authentication_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import pt.tqs.hw1.zeromonos_collection.configs.BoundedPasswordEncoder;
+import pt.tqs.hw1.zeromonos_collection.errors.PasswordHashingRejectedException;
+
+class BoundedPasswordEncoderTest {
+
+    private SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private BoundedPasswordEncoder encoder;
+
+    @AfterEach
+    void tearDown() {
+        encoder.destroy();
+    }
+
+    @Test
+    @DisplayName("Encode and match through the hashing pool.")
+    void testEncodeAndMatch() {
+        encoder = new BoundedPasswordEncoder(new BCryptPasswordEncoder(4), 2, 4, registry);
+
+        String hash = encoder.encode("pass");
+
+        assertThat(encoder.matches("pass", hash)).isTrue();
+        assertThat(encoder.matches("other", hash)).isFalse();
+        assertThat(registry.get("password.hashing.latency").tag("operation", "matches").timer().count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Reject hashing fast when the queue is full.")
+    void testRejectWhenSaturated() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch started = new CountDownLatch(1);
+        PasswordEncoder blocking = new PasswordEncoder() {
+            @Override
+            public String encode(CharSequence rawPassword) {
+                started.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return rawPassword.toString();
+            }
+
+            @Override
+            public boolean matches(CharSequence rawPassword, String encodedPassword) {
+                return true;
+            }
+        };
+        encoder = new BoundedPasswordEncoder(blocking, 1, 1, registry);
+
+        // one call running, one waiting in the queue
+        CompletableFuture<String> running = CompletableFuture.supplyAsync(() -> encoder.encode("a"));
+        started.await(5, TimeUnit.SECONDS);
+        CompletableFuture<String> queued = CompletableFuture.supplyAsync(() -> encoder.encode("b"));
+        while (registry.get("password.hashing.queue.size").gauge().value() < 1) {
+            Thread.onSpinWait();
+        }
+
+        assertThrows(PasswordHashingRejectedException.class, () -> encoder.encode("c"));
+        assertThat(registry.get("password.hashing.rejected").counter().count()).isEqualTo(1);
+
+        release.countDown();
+        assertThat(running.get(5, TimeUnit.SECONDS)).isEqualTo("a");
+        assertThat(queued.get(5, TimeUnit.SECONDS)).isEqualTo("b");
+    }
+}
@@ -0,0 +1,105 @@
+package pt.tqs.hw1.zeromonos_collection.authentication_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import pt.tqs.hw1.zeromonos_collection.configs.CachingUserDetailsService;
+import pt.tqs.hw1.zeromonos_collection.entity.Role;
+import pt.tqs.hw1.zeromonos_collection.entity.User;
+import pt.tqs.hw1.zeromonos_collection.repository.UserRepository;
+
+@ExtendWith(MockitoExtension.class)
+class CachingUserDetailsServiceTest {
+
+    @Mock
+    private UserRepository userRepository;
+
+    private CachingUserDetailsService service;
+
+    private User user = User.builder()
+        .email("bob@email.com")
+        .password("pass")
+        .role(Role.CITIZEN)
+        .build();
+
+    @BeforeEach
+    void setUp() {
+        service = new CachingUserDetailsService(userRepository, Duration.ofMinutes(5), 100);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Repeated lookups are served from the cache.")
+    void testCacheHit() {
+        when(userRepository.findByEmail("bob@email.com")).thenReturn(Optional.of(user));
+
+        service.loadUserByUsername("bob@email.com");
+        assertThat(service.loadUserByUsername("bob@email.com")).isSameAs(user);
+
+        verify(userRepository, times(1)).findByEmail("bob@email.com");
+        assertThat(service.getCache().stats().hitCount()).isEqualTo(1);
+        assertThat(service.getCache().stats().missCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Evicting an email forces a reload.")
+    void testEvict() {
+        when(userRepository.findByEmail("bob@email.com")).thenReturn(Optional.of(user));
+
+        service.loadUserByUsername("bob@email.com");
+        service.evict("bob@email.com");
+        service.loadUserByUsername("bob@email.com");
+
+        verify(userRepository, times(2)).findByEmail("bob@email.com");
+    }
+
+    @Test
+    @DisplayName("Eviction inside a transaction waits for the commit.")
+    void testEvictAfterCommit() {
+        when(userRepository.findByEmail("bob@email.com")).thenReturn(Optional.of(user));
+        service.loadUserByUsername("bob@email.com");
+
+        TransactionSynchronizationManager.initSynchronization();
+        service.evictAfterCommit("bob@email.com");
+        service.loadUserByUsername("bob@email.com");
+        verify(userRepository, times(1)).findByEmail("bob@email.com");
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        service.loadUserByUsername("bob@email.com");
+        verify(userRepository, times(2)).findByEmail("bob@email.com");
+    }
+
+    @Test
+    @DisplayName("Unknown emails are not cached.")
+    void testUnknownUserNotCached() {
+        when(userRepository.findByEmail("ghost@email.com")).thenReturn(Optional.empty());
+
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost@email.com"));
+        assertThrows(UsernameNotFoundException.class, () -> service.loadUserByUsername("ghost@email.com"));
+
+        verify(userRepository, times(2)).findByEmail("ghost@email.com");
+    }
+}
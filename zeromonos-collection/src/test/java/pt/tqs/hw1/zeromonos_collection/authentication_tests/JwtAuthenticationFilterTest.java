@@ -0,0 +1,102 @@
+package pt.tqs.hw1.zeromonos_collection.authentication_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import pt.tqs.hw1.zeromonos_collection.auth.ParsedToken;
+import pt.tqs.hw1.zeromonos_collection.configs.JwtAuthenticationFilter;
+import pt.tqs.hw1.zeromonos_collection.entity.Role;
+import pt.tqs.hw1.zeromonos_collection.entity.User;
+import pt.tqs.hw1.zeromonos_collection.service.JwtService;
+import pt.tqs.hw1.zeromonos_collection.service.TokenDenylist;
+
+@ExtendWith(MockitoExtension.class)
+class JwtAuthenticationFilterTest {
+
+    @Mock
+    private UserDetailsService userDetailsService;
+
+    private JwtService jwtService = new JwtService("dGhpc2lzYXNlY3JldGtleWZvcnRlc3RpbmcxMjM0abcd5678");
+    private TokenDenylist tokenDenylist = new TokenDenylist();
+    private JwtAuthenticationFilter filter;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        filter = new JwtAuthenticationFilter(jwtService, userDetailsService, tokenDenylist);
+        user = User.builder()
+            .id(7)
+            .email("bob@email.com")
+            .password("pass")
+            .role(Role.CITIZEN)
+            .build();
+    }
+
+    @AfterEach
+    void clearContext() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    @DisplayName("Default mode loads the user before authenticating.")
+    void testDatabaseBackedMode() throws Exception {
+        when(userDetailsService.loadUserByUsername("bob@email.com")).thenReturn(user);
+
+        filter.doFilter(bearer(jwtService.generateToken(user)), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(auth.getPrincipal()).isSameAs(user);
+        assertThat(auth.getName()).isEqualTo("bob@email.com");
+    }
+
+    @Test
+    @DisplayName("Stateless mode builds the principal from the token claims only.")
+    void testStatelessMode() throws Exception {
+        ReflectionTestUtils.setField(filter, "stateless", true);
+
+        filter.doFilter(bearer(jwtService.generateToken(user)), new MockHttpServletResponse(), new MockFilterChain());
+
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        assertThat(auth.getName()).isEqualTo("bob@email.com");
+        assertThat(auth.getAuthorities()).extracting("authority").containsExactly("ROLE_CITIZEN");
+        assertThat(((ParsedToken) auth.getPrincipal()).getUserId()).isEqualTo(7);
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    @Test
+    @DisplayName("Revoked tokens do not authenticate.")
+    void testRevokedToken() throws Exception {
+        String token = jwtService.generateToken(user);
+        ParsedToken parsed = jwtService.parse(token);
+        tokenDenylist.revoke(parsed.getId(), parsed.getExpiration());
+
+        filter.doFilter(bearer(token), new MockHttpServletResponse(), new MockFilterChain());
+
+        assertThat(SecurityContextHolder.getContext().getAuthentication()).isNull();
+        verify(userDetailsService, never()).loadUserByUsername(anyString());
+    }
+
+    private MockHttpServletRequest bearer(String token) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.addHeader("Authorization", "Bearer " + token);
+        return request;
+    }
+}
@@ -0,0 +1,91 @@
+package pt.tqs.hw1.zeromonos_collection.authentication_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Date;
+import java.util.List;
+
+import javax.crypto.SecretKey;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.auth.ParsedToken;
+import pt.tqs.hw1.zeromonos_collection.entity.Role;
+import pt.tqs.hw1.zeromonos_collection.entity.User;
+import pt.tqs.hw1.zeromonos_collection.service.JwtService;
+
+/**
+ * Per-request authentication cost of the old multi-parse path versus the
+ * single-pass {@link JwtService#parse(String)}.
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=JwtServiceBenchmarkTest}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class JwtServiceBenchmarkTest {
+
+    private static final String SECRET = "dGhpc2lzYXNlY3JldGtleWZvcnRlc3RpbmcxMjM0abcd5678";
+    private static final int WARMUP = 20_000;
+    private static final int ITERATIONS = 100_000;
+
+    @Test
+    @DisplayName("Benchmark per-request token verification.")
+    void benchmarkTokenVerification() {
+        JwtService service = new JwtService(SECRET);
+        UserDetails user = User.builder()
+            .email("bench@email.com")
+            .password("pass")
+            .role(Role.CITIZEN)
+            .build();
+        String token = service.generateToken(user);
+
+        for (int i = 0; i < WARMUP; i++) {
+            legacyRequest(token, user);
+            singlePassRequest(service, token, user);
+        }
+
+        long legacy = time(() -> legacyRequest(token, user));
+        long singlePass = time(() -> singlePassRequest(service, token, user));
+
+        log.info("JWT auth per request: legacy={} ns, single-pass={} ns ({}x)",
+            legacy, singlePass, String.format("%.1f", (double) legacy / singlePass));
+        assertEquals(1, singlePassRequest(service, token, user));
+        assertTrue(singlePass < legacy, "single-pass verification should be faster than the legacy path");
+    }
+
+    private long time(Runnable request) {
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            request.run();
+        }
+        return (System.nanoTime() - start) / ITERATIONS;
+    }
+
+    private int singlePassRequest(JwtService service, String token, UserDetails user) {
+        ParsedToken parsed = service.parse(token);
+        return service.isTokenValid(parsed, user) ? parsed.getRoles().size() : 0;
+    }
+
+    // what the filter used to do: getUsername, isTokenValid (two parses) and the roles claim,
+    // each deriving the key and building a new parser
+    private int legacyRequest(String token, UserDetails user) {
+        String username = legacyClaims(token).getSubject();
+        boolean valid = legacyClaims(token).getSubject().equals(user.getUsername())
+            && !legacyClaims(token).getExpiration().before(new Date());
+        List<?> roles = legacyClaims(token).get("roles", List.class);
+        return username != null && valid ? roles.size() : 0;
+    }
+
+    private Claims legacyClaims(String token) {
+        SecretKey key = Keys.hmacShaKeyFor(Decoders.BASE64.decode(SECRET));
+        return Jwts.parser().verifyWith(key).build().parseSignedClaims(token).getPayload();
+    }
+}
@@ -1,12 +1,17 @@
 package pt.tqs.hw1.zeromonos_collection.authentication_tests;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
+import java.util.List;
+
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import io.jsonwebtoken.JwtException;
+import pt.tqs.hw1.zeromonos_collection.auth.ParsedToken;
 import pt.tqs.hw1.zeromonos_collection.entity.Role;
 import pt.tqs.hw1.zeromonos_collection.entity.User;
 import pt.tqs.hw1.zeromonos_collection.service.JwtService;
@@ -24,9 +29,45 @@ class JwtServiceTest {
             .name("name")
             .role(Role.CITIZEN)
             .build();
-        String token = service.generateToken(user);
+        ParsedToken token = service.parse(service.generateToken(user));
+
+        assertTrue(service.isTokenValid(token, user));
+        assertEquals("test@email.com", token.getSubject());
+    }
+
+    @Test
+    @DisplayName("Parse a token once and read every claim from it.")
+    void testParseToken() {
+        String secretKey = "dGhpc2lzYXNlY3JldGtleWZvcnRlc3RpbmcxMjM0abcd5678";
+        JwtService service = new JwtService(secretKey);
+        UserDetails user = User.builder()
+            .email("test@email.com")
+            .password("pass")
+            .name("name")
+            .role(Role.STAFF)
+            .build();
+
+        ParsedToken token = service.parse(service.generateToken(user));
 
+        assertEquals("test@email.com", token.getSubject());
+        assertEquals(List.of("ROLE_STAFF"), token.getRoles());
+        assertTrue(token.getExpiration().after(token.getIssuedAt()));
         assertTrue(service.isTokenValid(token, user));
-        assertEquals("test@email.com", service.getUsername(token));
+    }
+
+    @Test
+    @DisplayName("Reject a token signed with another key.")
+    void testParseTokenWithWrongKey() {
+        JwtService issuer = new JwtService("dGhpc2lzYXNlY3JldGtleWZvcnRlc3RpbmcxMjM0abcd5678");
+        JwtService verifier = new JwtService("YW5vdGhlcnNlY3JldGtleWZvcnRlc3RpbmcxMjM0NTY3ODkw");
+        UserDetails user = User.builder()
+            .email("test@email.com")
+            .password("pass")
+            .role(Role.CITIZEN)
+            .build();
+
+        String token = issuer.generateToken(user);
+
+        assertThrows(JwtException.class, () -> verifier.parse(token));
     }
 }
@@ -0,0 +1,38 @@
+package pt.tqs.hw1.zeromonos_collection.authentication_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.util.Date;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pt.tqs.hw1.zeromonos_collection.service.TokenDenylist;
+
+class TokenDenylistTest {
+
+    private TokenDenylist denylist = new TokenDenylist();
+
+    @Test
+    @DisplayName("Revoked token ids are denied until they expire.")
+    void testRevoke() {
+        denylist.revoke("jti-1", new Date(System.currentTimeMillis() + 60_000));
+
+        assertThat(denylist.isRevoked("jti-1")).isTrue();
+        assertThat(denylist.isRevoked("jti-2")).isFalse();
+        assertThat(denylist.isRevoked(null)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Expired entries are dropped by the purge.")
+    void testPurgeExpired() {
+        denylist.revoke("old", new Date(System.currentTimeMillis() - 1));
+        denylist.revoke("live", new Date(System.currentTimeMillis() + 60_000));
+
+        assertThat(denylist.isRevoked("old")).isFalse();
+        denylist.purgeExpired();
+
+        assertThat(denylist.size()).isEqualTo(1);
+        assertThat(denylist.isRevoked("live")).isTrue();
+    }
+}
@@ -0,0 +1,64 @@
+package pt.tqs.hw1.zeromonos_collection.authentication_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.hibernate.exception.ConstraintViolationException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import pt.tqs.hw1.zeromonos_collection.entity.Role;
+import pt.tqs.hw1.zeromonos_collection.entity.User;
+import pt.tqs.hw1.zeromonos_collection.repository.LocationDictionary;
+import pt.tqs.hw1.zeromonos_collection.repository.UserRepository;
+
+@DataJpaTest
+@Import(LocationDictionary.class)
+class UserRepositoryTest {
+
+    private static final int USERS = 20_000;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Email lookups on a large users table use the unique email index")
+    void testFindByEmailUsesIndex() {
+        List<Object[]> rows = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            rows.add(new Object[] { 1_000_000 + i, "user" + i, "user" + i + "@email.com", "hash", "CITIZEN" });
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO users (id, name, email, password, role) VALUES (?, ?, ?, ?, ?)", rows);
+
+        String plan = jdbcTemplate.queryForObject(
+            "EXPLAIN SELECT * FROM users WHERE email = 'user12345@email.com'", String.class);
+
+        assertThat(plan).containsIgnoringCase("uk_users_email");
+        assertThat(userRepository.findByEmail("user12345@email.com"))
+            .get().extracting(User::getName).isEqualTo("user12345");
+    }
+
+    @Test
+    @DisplayName("Duplicate emails are rejected by the database")
+    void testDuplicateEmailRejected() {
+        userRepository.saveAndFlush(User.builder().email("bob@email.com").password("p").role(Role.CITIZEN).build());
+
+        User duplicate = User.builder().email("bob@email.com").password("p").role(Role.STAFF).build();
+        DataIntegrityViolationException e = assertThrows(DataIntegrityViolationException.class,
+            () -> userRepository.saveAndFlush(duplicate));
+        // AuthenticationService only reports a taken email for this constraint
+        assertThat(e.getCause()).isInstanceOfSatisfying(ConstraintViolationException.class,
+            violation -> assertThat(violation.getConstraintName()).containsIgnoringCase("uk_users_email"));
+    }
+}
@@ -0,0 +1,127 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingChange;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingRequest;
+import pt.tqs.hw1.zeromonos_collection.entity.ChangeFeed;
+import pt.tqs.hw1.zeromonos_collection.entity.State;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingStateHistoryRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.DailyCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.SlotCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.service.BookingsService;
+import pt.tqs.hw1.zeromonos_collection.service.SlotAvailabilityService;
+
+@SpringBootTest(properties = "changes.commit-lag=500ms")
+class BookingChangeFeedTest {
+
+    private static final long LAG_MILLIS = 500;
+
+    @Autowired
+    private BookingsService bookingsService;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingStateHistoryRepository bookingStateHistoryRepository;
+
+    @Autowired
+    private DailyCapacityRepository dailyCapacityRepository;
+
+    @Autowired
+    private SlotCapacityRepository slotCapacityRepository;
+
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+
+    private LocalDate futureDate = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    @BeforeEach
+    @AfterEach
+    void cleanDatabase() {
+        bookingStateHistoryRepository.deleteAll();
+        bookingRepository.deleteAll();
+        dailyCapacityRepository.deleteAll();
+        slotCapacityRepository.deleteAll();
+        slotAvailabilityService.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("A change committed after a higher id was written is not skipped")
+    void testLowerIdCommittedLate() throws Exception {
+        Booking first = bookingsService.createBooking(request(LocalTime.of(9, 0)), "bob@email.com");
+        Booking second = bookingsService.createBooking(request(LocalTime.of(10, 0)), "bob@email.com");
+        Thread.sleep(LAG_MILLIS + 100);
+        ChangeFeed created = bookingsService.getChangesSince(null, 10);
+        assertThat(created.getChanges()).hasSize(2);
+
+        // the first update takes the lower history id and commits only after the second one
+        CountDownLatch inserted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<?> slow = pool.submit(() -> new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            bookingsService.updateState(first.getId(), State.ASSIGNED, "staff@email.com");
+            bookingStateHistoryRepository.flush();
+            inserted.countDown();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }));
+        assertThat(inserted.await(5, TimeUnit.SECONDS)).isTrue();
+        bookingsService.updateState(second.getId(), State.ASSIGNED, "staff@email.com");
+
+        ChangeFeed early = bookingsService.getChangesSince(created.getNextCursor(), 10);
+        assertThat(early.getChanges()).isEmpty();
+        assertThat(early.getNextCursor()).isEqualTo(created.getNextCursor());
+
+        release.countDown();
+        slow.get(5, TimeUnit.SECONDS);
+        pool.shutdown();
+        Thread.sleep(LAG_MILLIS + 100);
+
+        ChangeFeed settled = bookingsService.getChangesSince(early.getNextCursor(), 10);
+        assertThat(settled.getChanges())
+            .extracting(BookingChange::getBookingId)
+            .containsExactly(first.getId(), second.getId());
+        assertThat(settled.isHasMore()).isFalse();
+    }
+
+    private BookingRequest request(LocalTime time) {
+        return BookingRequest.builder()
+            .district("Lisboa")
+            .municipality("Lisboa")
+            .village("Sintra")
+            .postalCode("0000-000")
+            .date(futureDate)
+            .time(time)
+            .description("item 1")
+            .build();
+    }
+}
@@ -2,57 +2,152 @@ package pt.tqs.hw1.zeromonos_collection.booking_tests;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.hibernate.Session;
+import org.hibernate.stat.SessionStatistics;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
 
+import jakarta.persistence.EntityManager;
 import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingSearchCriteria;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingView;
+import pt.tqs.hw1.zeromonos_collection.entity.PublicBookingView;
 import pt.tqs.hw1.zeromonos_collection.entity.State;
 import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingSpecifications;
+import pt.tqs.hw1.zeromonos_collection.repository.LocationDictionary;
+import pt.tqs.hw1.zeromonos_collection.service.LocationCatalog;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
+import java.util.List;
+import java.util.Optional;
 
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
 @DataJpaTest
+@Import(LocationDictionary.class)
 class BookingRepositoryTest {
     
     @Autowired
     private BookingRepository bookingRepository;
 
-    @Test
-    @DisplayName("Count bookings for a municipality on a specific date")    
-    void testCountByMunicipalityAndDate() {
-        LocalDate date = LocalDate.of(2025, 1, 1);
+    @Autowired
+    private LocationDictionary locationDictionary;
 
-        bookingRepository.save(Booking.builder()
-            .district("District")
-            .municipality("Lisbon")
-            .village("Sintra")
-            .postalCode("1111-111")
-            .date(date)
-            .time(LocalTime.now())
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Test
+    @DisplayName("Locations are stored as dictionary ids and read back as names")
+    void testLocationDictionaryEncoding() {
+        Booking saved = bookingRepository.saveAndFlush(Booking.builder()
+            .district("viana do castelo")
+            .municipality("PONTE DE LIMA")
+            .village("Arcozelo")
+            .postalCode("4990-000")
+            .date(LocalDate.of(2025, 1, 1))
+            .time(LocalTime.of(10, 0))
             .description("item 1")
             .state(State.RECEIVED)
             .token("t1")
             .createdBy("bob@email.com")
             .build());
 
-        bookingRepository.save(Booking.builder()
-            .district("District")
-            .municipality("Lisbon")
+        Short municipalityId = jdbcTemplate.queryForObject(
+            "SELECT municipality_id FROM booking WHERE id = ?", Short.class, saved.getId());
+        assertThat(municipalityId).isEqualTo(locationDictionary.municipalityId("Ponte de Lima"));
+
+        assertThat(bookingRepository.findViewsByDistrictAfter("Viana do Castelo", 0L, Limit.of(10)))
+            .extracting(BookingView::getMunicipality).containsExactly("Ponte de Lima");
+        assertThat(bookingRepository.countActiveByTime("Springfield", LocalDate.of(2025, 1, 1), State.CANCELED)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("The dictionary seed and the catalog list the same locations")
+    void testDictionaryCoversCatalog() {
+        LocationCatalog catalog = new LocationCatalog(new ClassPathResource("locations/municipalities.csv"));
+
+        // same names and spelling both ways: a catalog name missing from the seed would make the
+        // converter write null, and a seed name missing from the catalog could never be booked
+        assertThat(jdbcTemplate.queryForList("SELECT name FROM district", String.class))
+            .containsExactlyInAnyOrderElementsOf(catalog.getDistricts());
+        assertThat(jdbcTemplate.queryForList(
+                "SELECT d.name || ';' || m.name FROM municipality m JOIN district d ON d.id = m.district_id", String.class))
+            .containsExactlyInAnyOrderElementsOf(catalog.getMunicipalities().stream()
+                .map(entry -> entry.getDistrict() + ";" + entry.getName()).toList());
+        assertThat(catalog.getMunicipalities()).allMatch(entry -> locationDictionary.containsMunicipality(entry.getName())
+            && locationDictionary.containsDistrict(entry.getDistrict()));
+    }
+
+    @Test
+    @DisplayName("A municipality name in two districts is one entry per district")
+    void testMunicipalityKeyedByDistrict() {
+        bookingRepository.saveAndFlush(booking("Madeira", "Calheta", "t1"));
+        bookingRepository.saveAndFlush(booking("Açores", "Calheta", "t2"));
+
+        assertThat(bookingRepository.findViewsByDistrictAfter("Açores", 0L, Limit.of(10)))
+            .extracting(BookingView::getMunicipality).containsExactly("Calheta");
+        assertThat(bookingRepository.findViewsByMunicipalityAfter("Calheta", 0L, Limit.of(10)))
+            .extracting(BookingView::getDistrict).containsExactly("Madeira", "Açores");
+
+        // a municipality outside the booking's district has no dictionary entry to reference
+        Booking elsewhere = booking("Porto", "Calheta", "t3");
+        assertThrows(DataIntegrityViolationException.class, () -> bookingRepository.saveAndFlush(elsewhere));
+    }
+
+    @Test
+    @DisplayName("Read views are built from columns without managed entities")
+    void testViewsAreNotManaged() {
+        Booking saved = bookingRepository.saveAndFlush(Booking.builder()
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
-            .postalCode("0000-000")
-            .date(date)
-            .time(LocalTime.now())
-            .description("item 2")
+            .postalCode("1111-111")
+            .date(LocalDate.of(2025, 1, 1))
+            .time(LocalTime.of(10, 0))
+            .description("item 1")
             .state(State.RECEIVED)
-            .token("t2")
+            .token("t1")
             .createdBy("bob@email.com")
             .build());
+        entityManager.clear();
+        SessionStatistics statistics = entityManager.unwrap(Session.class).getStatistics();
+
+        List<BookingView> page = bookingRepository.findViewsByMunicipalityAfter("Lisboa", 0L, Limit.of(10));
+        BookingSearchCriteria criteria = new BookingSearchCriteria();
+        criteria.setDistrict("Lisboa");
+        List<BookingView> found = bookingRepository.findViews(BookingSpecifications.matching(criteria, 0L), Limit.of(10));
+        Optional<PublicBookingView> publicView = bookingRepository.findPublicViewByToken("t1");
+
+        assertThat(page).extracting(BookingView::getId).containsExactly(saved.getId());
+        assertThat(found).extracting(BookingView::getCreatedBy).containsExactly("bob@email.com");
+        assertThat(publicView).get().extracting(PublicBookingView::getVillage).isEqualTo("Sintra");
+        assertThat(statistics.getEntityCount()).isZero();
+    }
 
-        Long count = bookingRepository.countByMunicipalityAndDate("Lisbon", date);
-        assertThat(count).isEqualTo(2);
+    private static Booking booking(String district, String municipality, String token) {
+        return Booking.builder()
+            .district(district)
+            .municipality(municipality)
+            .village("Centro")
+            .postalCode("9000-000")
+            .date(LocalDate.of(2025, 1, 1))
+            .time(LocalTime.of(10, 0))
+            .description("item 1")
+            .state(State.RECEIVED)
+            .token(token)
+            .createdBy("bob@email.com")
+            .build();
     }
 }
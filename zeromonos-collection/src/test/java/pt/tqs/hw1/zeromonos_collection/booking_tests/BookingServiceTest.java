@@ -5,30 +5,55 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.util.Collections;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+
 import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingChange;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingPage;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingPolicy;
 import pt.tqs.hw1.zeromonos_collection.entity.BookingRequest;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingView;
+import pt.tqs.hw1.zeromonos_collection.entity.ChangeFeed;
+import pt.tqs.hw1.zeromonos_collection.entity.PostalCodeLocation;
+import pt.tqs.hw1.zeromonos_collection.entity.SlotHold;
 import pt.tqs.hw1.zeromonos_collection.entity.State;
 import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
 import pt.tqs.hw1.zeromonos_collection.repository.BookingStateHistoryRepository;
+import pt.tqs.hw1.zeromonos_collection.service.BookingPolicyService;
+import pt.tqs.hw1.zeromonos_collection.service.BookingTextIndex;
 import pt.tqs.hw1.zeromonos_collection.service.BookingsService;
+import pt.tqs.hw1.zeromonos_collection.service.CapacityLedgerService;
+import pt.tqs.hw1.zeromonos_collection.service.LocationCatalog;
+import pt.tqs.hw1.zeromonos_collection.service.PostalCodeService;
+import pt.tqs.hw1.zeromonos_collection.service.PublicBookingCache;
+import pt.tqs.hw1.zeromonos_collection.service.SlotAvailabilityService;
+import pt.tqs.hw1.zeromonos_collection.service.SlotHoldService;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
 import java.time.DayOfWeek;
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.TemporalAdjusters;
 import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
 
@@ -41,6 +66,33 @@ class BookingServiceTest {
     @Mock
     private BookingStateHistoryRepository bookingStateHistoryRepository;
 
+    @Mock
+    private CapacityLedgerService capacityLedgerService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private SlotAvailabilityService slotAvailabilityService;
+
+    @Mock
+    private SlotHoldService slotHoldService;
+
+    @Mock
+    private BookingTextIndex bookingTextIndex;
+
+    @Mock
+    private PostalCodeService postalCodeService;
+
+    @Mock
+    private PublicBookingCache publicBookingCache;
+
+    @Spy
+    private LocationCatalog locationCatalog = new LocationCatalog(new ClassPathResource("locations/municipalities.csv"));
+
+    @Spy
+    private BookingPolicyService bookingPolicyService = new BookingPolicyService(null, locationCatalog, BookingPolicy.standard());
+
     @InjectMocks
     private BookingsService bookingsService;
 
@@ -51,8 +103,8 @@ class BookingServiceTest {
     @DisplayName("Create booking")
     void testCreateBooking() {
         BookingRequest request = BookingRequest.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(testDate)
@@ -63,7 +115,7 @@ class BookingServiceTest {
         Booking saved = Booking.builder()
             .id(1L)
             .municipality(request.getMunicipality())
-            .district("District")
+            .district("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(request.getDate())
@@ -74,24 +126,116 @@ class BookingServiceTest {
             .token("token")
             .build();
 
-        when(bookingRepository.countByMunicipalityAndDate(anyString(), any())).thenReturn(0L);
+        when(capacityLedgerService.reserveDay(anyString(), any(), anyInt())).thenReturn(true);
+        when(capacityLedgerService.reserveSlot(anyString(), any(), any(), anyInt())).thenReturn(true);
         when(bookingRepository.save(any())).thenReturn(saved);
 
         Booking result = bookingsService.createBooking(request, "bob@email.com");
 
         assertThat(result).isNotNull();
         assertThat(result.getState()).isEqualTo(State.RECEIVED);
-        assertThat(result.getMunicipality()).isEqualTo("Lisbon");
+        assertThat(result.getMunicipality()).isEqualTo("Lisboa");
+        verify(capacityLedgerService).reserveSlot("Lisboa", testDate, LocalTime.of(10, 0), 1);
         verify(bookingRepository, times(1)).save(any());
     }
 
 
+    @Test
+    @DisplayName("District and municipality are derived from the postal code when missing")
+    void testCreateBookingDerivesLocation() {
+        BookingRequest request = BookingRequest.builder()
+            .village("Sé")
+            .postalCode("4700-123")
+            .date(testDate)
+            .time(LocalTime.of(10, 0))
+            .description("item 1")
+            .build();
+        when(postalCodeService.lookup("4700-123")).thenReturn(Optional.of(new PostalCodeLocation("4700-123", "Braga", "Braga")));
+        when(capacityLedgerService.reserveDay(anyString(), any(), anyInt())).thenReturn(true);
+        when(capacityLedgerService.reserveSlot(anyString(), any(), any(), anyInt())).thenReturn(true);
+        when(bookingRepository.save(any())).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(1L);
+            return booking;
+        });
+
+        Booking result = bookingsService.createBooking(request, "bob@email.com");
+
+        assertThat(result.getDistrict()).isEqualTo("Braga");
+        assertThat(result.getMunicipality()).isEqualTo("Braga");
+    }
+
+    @Test
+    @DisplayName("Deny booking for a municipality that is not in the catalog")
+    void testCreateBookingUnknownMunicipality() {
+        BookingRequest request = BookingRequest.builder()
+            .district("Lisboa")
+            .municipality("Springfield")
+            .village("Sintra")
+            .postalCode("0000-000")
+            .date(testDate)
+            .time(LocalTime.of(10, 0))
+            .description("item 1")
+            .build();
+
+        assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
+        assertThrows(IllegalArgumentException.class, () -> bookingsService.getAvailableTimes("Springfield", testDate));
+        verify(capacityLedgerService, never()).ensureDayLedger(anyString(), any());
+        verify(slotAvailabilityService, never()).getAvailableTimes(anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Strict postal codes deny a booking whose code belongs to another municipality")
+    void testCreateBookingPostalCodeMismatch() {
+        BookingRequest request = BookingRequest.builder()
+            .district("Braga")
+            .municipality("Guimarães")
+            .village("Sé")
+            .postalCode("4700-123")
+            .date(testDate)
+            .time(LocalTime.of(10, 0))
+            .description("item 1")
+            .build();
+        when(postalCodeService.isStrict()).thenReturn(true);
+        when(postalCodeService.lookup("4700-123")).thenReturn(Optional.of(new PostalCodeLocation("4700-123", "Braga", "Braga")));
+
+        assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
+        verify(bookingRepository, never()).save(any());
+    }
+
+    @Test
+    @DisplayName("Without strict postal codes, a disagreeing or malformed code keeps the location as sent")
+    void testCreateBookingPostalCodeNotStrict() {
+        BookingRequest request = BookingRequest.builder()
+            .district("Braga")
+            .municipality("Guimarães")
+            .village("Sé")
+            .postalCode("4700-123")
+            .date(testDate)
+            .time(LocalTime.of(10, 0))
+            .description("item 1")
+            .build();
+        when(postalCodeService.lookup("4700-123")).thenReturn(Optional.of(new PostalCodeLocation("4700-123", "Braga", "Braga")));
+        when(capacityLedgerService.reserveDay(anyString(), any(), anyInt())).thenReturn(true);
+        when(capacityLedgerService.reserveSlot(anyString(), any(), any(), anyInt())).thenReturn(true);
+        when(bookingRepository.save(any())).thenAnswer(invocation -> {
+            Booking booking = invocation.getArgument(0);
+            booking.setId(1L);
+            return booking;
+        });
+
+        assertThat(bookingsService.createBooking(request, "bob@email.com").getMunicipality()).isEqualTo("Guimarães");
+
+        request.setPostalCode("4700 123");
+        assertThat(bookingsService.createBooking(request, "bob@email.com").getMunicipality()).isEqualTo("Guimarães");
+    }
+
     @Test
     @DisplayName("Deny booking when max capacity is reached")
     void testCreateBookingMaxCapacityReached() {
         BookingRequest request = BookingRequest.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(testDate)
@@ -100,11 +244,83 @@ class BookingServiceTest {
             .build();
         
         // simulate max capacity
-        when(bookingRepository.countByMunicipalityAndDate("Lisbon", request.getDate())).thenReturn(20L);
+        when(capacityLedgerService.reserveDay("Lisboa", request.getDate(), 10)).thenReturn(false);
 
         Exception e = assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
 
-        assertThat(e.getMessage()).isEqualTo("Daily capacity reached for Lisbon");
+        assertThat(e.getMessage()).isEqualTo("Daily capacity reached for Lisboa");
+        verify(bookingRepository, never()).save(any());
+    }
+
+
+    @Test
+    @DisplayName("A hold is converted into the booking")
+    void testCreateBookingWithHold() {
+        BookingRequest request = BookingRequest.builder()
+            .municipality("Lisboa")
+            .date(testDate)
+            .time(LocalTime.of(10, 0))
+            .holdId("hold-1")
+            .build();
+        SlotHold hold = SlotHold.builder()
+            .id("hold-1")
+            .owner("bob@email.com")
+            .municipality("Lisboa")
+            .date(testDate)
+            .time(LocalTime.of(10, 0))
+            .build();
+
+        when(slotHoldService.find("hold-1", "bob@email.com")).thenReturn(hold);
+        when(slotHoldService.heldForDay("Lisboa", testDate)).thenReturn(3);
+        when(slotHoldService.heldForSlot("Lisboa", testDate, LocalTime.of(10, 0))).thenReturn(1);
+        when(capacityLedgerService.reserveDay("Lisboa", testDate, 8)).thenReturn(true);
+        when(capacityLedgerService.reserveSlot("Lisboa", testDate, LocalTime.of(10, 0), 1)).thenReturn(true);
+        when(bookingRepository.save(any())).thenReturn(Booking.builder().id(1L).build());
+
+        bookingsService.createBooking(request, "bob@email.com");
+
+        verify(slotHoldService, times(1)).release("hold-1");
+        verify(capacityLedgerService, never()).isKnownFull(anyString(), any(), anyInt());
+    }
+
+
+    @Test
+    @DisplayName("Deny booking with an expired or someone else's hold")
+    void testCreateBookingWithUnknownHold() {
+        BookingRequest request = BookingRequest.builder()
+            .municipality("Lisboa")
+            .date(testDate)
+            .time(LocalTime.of(10, 0))
+            .holdId("hold-1")
+            .build();
+
+        Exception e = assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
+
+        assertThat(e.getMessage()).isEqualTo("Hold expired or does not match the booking.");
+        verify(capacityLedgerService, never()).reserveDay(anyString(), any(), anyInt());
+    }
+
+
+    @Test
+    @DisplayName("Deny booking when the time slot is full")
+    void testCreateBookingSlotFull() {
+        BookingRequest request = BookingRequest.builder()
+            .district("Lisboa")
+            .municipality("Lisboa")
+            .village("Sintra")
+            .postalCode("0000-000")
+            .date(testDate)
+            .time(LocalTime.of(10, 0))
+            .description("item 1")
+            .build();
+
+        when(capacityLedgerService.reserveDay("Lisboa", testDate, 10)).thenReturn(true);
+        when(capacityLedgerService.reserveSlot("Lisboa", testDate, LocalTime.of(10, 0), 1)).thenReturn(false);
+
+        Exception e = assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
+
+        assertThat(e.getMessage()).isEqualTo("Time slot 10:00 is fully booked for Lisboa");
+        verify(bookingRepository, never()).save(any());
     }
 
 
@@ -112,8 +328,8 @@ class BookingServiceTest {
     @DisplayName("Allow booking exactly at 08:00 and 17:00")
     void testCreateBookingArEdgeHours() {
         BookingRequest b1 = BookingRequest.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(testDate)
@@ -121,19 +337,19 @@ class BookingServiceTest {
             .description("item 1")
             .build();
         BookingRequest b2 = BookingRequest.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(testDate)
-            .time(LocalTime.of(17, 0))
+            .time(LocalTime.of(16, 0))
             .description("item 1")
             .build();
 
         Booking saved = Booking.builder()
             .id(1L)
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(b1.getDate())
@@ -144,7 +360,8 @@ class BookingServiceTest {
             .token("token")
             .build();
 
-        when(bookingRepository.countByMunicipalityAndDate(anyString(), any())).thenReturn(0L);
+        when(capacityLedgerService.reserveDay(anyString(), any(), anyInt())).thenReturn(true);
+        when(capacityLedgerService.reserveSlot(anyString(), any(), any(), anyInt())).thenReturn(true);
         when(bookingRepository.save(any())).thenReturn(saved);
 
         Booking result1 = bookingsService.createBooking(b1, "bob@email.com");
@@ -159,8 +376,8 @@ class BookingServiceTest {
     @DisplayName("Deny booking in the past")
     void testBookingForPastDate() {
         BookingRequest request = BookingRequest.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(LocalDate.now().with(TemporalAdjusters.previous(DayOfWeek.MONDAY)))
@@ -177,8 +394,8 @@ class BookingServiceTest {
     @DisplayName("Deny booking outside of working hours")
     void testCreateBookingOutOfHours() {
         BookingRequest request = BookingRequest.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(testDate)
@@ -191,12 +408,52 @@ class BookingServiceTest {
     }
 
 
+    @Test
+    @DisplayName("Deny booking at the closing time")
+    void testCreateBookingAtCloseTime() {
+        BookingRequest request = BookingRequest.builder()
+            .district("Lisboa")
+            .municipality("Lisboa")
+            .village("Sintra")
+            .postalCode("0000-000")
+            .date(testDate)
+            .time(LocalTime.of(17, 0))
+            .description("item 1")
+            .build();
+
+        Exception e = assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
+        assertThat(e.getMessage()).isEqualTo("Bookings allowed only between 08:00 and 17:00.");
+        verifyNoInteractions(capacityLedgerService);
+    }
+
+
+    @Test
+    @DisplayName("Deny booking at a time that does not start a slot")
+    void testCreateBookingOffGrid() {
+        BookingRequest request = BookingRequest.builder()
+            .district("Lisboa")
+            .municipality("Lisboa")
+            .village("Sintra")
+            .postalCode("0000-000")
+            .date(testDate)
+            .description("item 1")
+            .build();
+
+        for (LocalTime time : List.of(LocalTime.of(8, 1), LocalTime.of(8, 30), LocalTime.of(10, 0, 30))) {
+            request.setTime(time);
+            Exception e = assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
+            assertThat(e.getMessage()).isEqualTo("Bookings start every 60 minutes from 08:00.");
+        }
+        verifyNoInteractions(capacityLedgerService);
+    }
+
+
     @Test
     @DisplayName("Deny bookings on weekends")
     void testCreateBookingsOnWeekends() {
         BookingRequest request = BookingRequest.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.SATURDAY)))
@@ -214,8 +471,8 @@ class BookingServiceTest {
     void testCancelBooking() {
         Booking booking = Booking.builder()
             .id(1L)
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(LocalDate.now())
@@ -233,6 +490,8 @@ class BookingServiceTest {
 
         assertThat(canceled.getState()).isEqualTo(State.CANCELED);
         verify(bookingRepository, times(1)).save(booking);
+        verify(capacityLedgerService, times(1)).releaseDay("Lisboa", booking.getDate());
+        verify(capacityLedgerService, times(1)).releaseSlot("Lisboa", booking.getDate(), booking.getTime());
     }
 
 
@@ -241,8 +500,8 @@ class BookingServiceTest {
     void testUpdateState() {
         Booking booking = Booking.builder()
             .id(1L)
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(LocalDate.now())
@@ -261,6 +520,8 @@ class BookingServiceTest {
 
         assertThat(updated.getState()).isEqualTo(State.ASSIGNED);
         verify(bookingStateHistoryRepository, times(1)).save(any());
+        verify(capacityLedgerService, never()).releaseDay(anyString(), any());
+        verify(publicBookingCache).evictAfterCommit("token");
     }
 
 
@@ -269,8 +530,8 @@ class BookingServiceTest {
     void testUpdateInvalidStateTransition() {
         Booking booking = Booking.builder()
             .id(1L)
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(LocalDate.now())
@@ -295,8 +556,8 @@ class BookingServiceTest {
     void testUpdateSameState() {
         Booking booking = Booking.builder()
             .id(1L)
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(LocalDate.now())
@@ -312,6 +573,7 @@ class BookingServiceTest {
         Booking result = bookingsService.updateState(1L, State.RECEIVED, "staff@email.com");
 
         assertThat(result).isSameAs(booking);
+        verify(publicBookingCache, never()).evictAfterCommit(anyString());
         assertThat(result.getState()).isEqualTo(State.RECEIVED);
         verify(bookingRepository, never()).save(any());
         verify(bookingStateHistoryRepository, never()).save(any());
@@ -321,18 +583,35 @@ class BookingServiceTest {
     @Test
     @DisplayName("Get available times for booking")
     void testGetAvailableTimes() {
-        LocalDate date = LocalDate.now().plusDays(1);
-        List<Booking> bookings = Arrays.asList(
-            Booking.builder().time(LocalTime.of(9, 0)).build(),
-            Booking.builder().time(LocalTime.of(12, 0)).build()
-        );
+        List<LocalTime> times = List.of(LocalTime.of(8, 0), LocalTime.of(10, 0));
+        when(slotAvailabilityService.getAvailableTimes("Lisboa", testDate)).thenReturn(times);
+
+        List<LocalTime> available = bookingsService.getAvailableTimes("Lisboa", testDate);
+
+        assertThat(available).isSameAs(times);
+        verifyNoInteractions(bookingRepository);
+    }
 
-        when(bookingRepository.findByMunicipalityAndDate("Lisbon", date)).thenReturn(bookings);
 
-        List<LocalTime> available = bookingsService.getAvailableTimes("Lisbon", date);
+    @Test
+    @DisplayName("Municipality policy drives hours, slots and closed days")
+    void testMunicipalityPolicy() {
+        BookingPolicy lisbon = new BookingPolicy(50, 2, LocalTime.of(7, 0), LocalTime.of(9, 0), 30,
+            EnumSet.of(DayOfWeek.MONDAY));
+        doReturn(lisbon).when(bookingPolicyService).policyFor("Lisboa");
+
+        BookingRequest request = BookingRequest.builder()
+            .municipality("Lisboa")
+            .date(testDate.plusDays(1))
+            .time(LocalTime.of(10, 0))
+            .build();
+        Exception e = assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
+        assertThat(e.getMessage()).isEqualTo("Bookings allowed only between 07:00 and 09:00.");
 
-        assertThat(available).doesNotContain(LocalTime.of(9, 0), LocalTime.of(12, 0)).contains(
-            LocalTime.of(8, 0), LocalTime.of(10, 0), LocalTime.of(11, 0), LocalTime.of(13, 0));
+        request.setTime(LocalTime.of(7, 0));
+        request.setDate(testDate);
+        e = assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
+        assertThat(e.getMessage()).isEqualTo("Bookings are not possible on MONDAY for Lisboa.");
     }
 
 
@@ -340,8 +619,8 @@ class BookingServiceTest {
     @DisplayName("Get bookings by municipality")
     void testGetBookingsByMunicipality() {
         Booking booking1 = Booking.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(testDate)
@@ -350,8 +629,8 @@ class BookingServiceTest {
             .createdBy("bob@email.com")
             .build();
         Booking booking2 = Booking.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Cascais")
             .postalCode("0000-000")
             .date(testDate)
@@ -359,36 +638,36 @@ class BookingServiceTest {
             .state(State.RECEIVED)
             .createdBy("bob@email.com")
             .build();
-        when(bookingRepository.findByMunicipality("Lisbon"))
-            .thenReturn(Arrays.asList(booking1, booking2));
+        when(bookingRepository.findViewsByMunicipalityAfter("Lisboa", 0L, Limit.of(51)))
+            .thenReturn(Arrays.asList(BookingView.of(booking1), BookingView.of(booking2)));
         
-        List<Booking> result = bookingsService.getBookingsByMunicipality("Lisbon");
+        List<BookingView> result = bookingsService.getBookingsByMunicipality("Lisboa", null, 50).getItems();
 
         assertThat(result).isNotEmpty();
         assertThat(result).hasSize(2);
-        assertThat(result.get(0).getMunicipality()).isEqualTo("Lisbon");
-        assertThat(result.get(1).getMunicipality()).isEqualTo("Lisbon");
-        verify(bookingRepository, times(1)).findByMunicipality("Lisbon");
+        assertThat(result.get(0).getMunicipality()).isEqualTo("Lisboa");
+        assertThat(result.get(1).getMunicipality()).isEqualTo("Lisboa");
+        verify(bookingRepository, times(1)).findViewsByMunicipalityAfter("Lisboa", 0L, Limit.of(51));
     }
 
     @Test
     @DisplayName("Get bookings by municipality returns empty list when no bookings exist")
     void testGetBookingsByMunicipalityEmpty() {
         String municipality = "Porto";
-        when(bookingRepository.findByMunicipality(municipality)).thenReturn(Collections.emptyList());
+        when(bookingRepository.findViewsByMunicipalityAfter(municipality, 0L, Limit.of(51))).thenReturn(Collections.emptyList());
 
-        List<Booking> result = bookingsService.getBookingsByMunicipality(municipality);
+        List<BookingView> result = bookingsService.getBookingsByMunicipality(municipality, null, 50).getItems();
 
         assertThat(result).isNotNull().isEmpty();
-        verify(bookingRepository, times(1)).findByMunicipality(municipality);
+        verify(bookingRepository, times(1)).findViewsByMunicipalityAfter(municipality, 0L, Limit.of(51));
     }
 
     @Test
     @DisplayName("Get bookings by district")
     void testGetBookingsByDistrict() {
         Booking b1 = Booking.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(testDate)
@@ -397,25 +676,97 @@ class BookingServiceTest {
             .createdBy("bob@email.com")
             .build();
 
-        when(bookingRepository.findByDistrict("District")).thenReturn(Arrays.asList(b1));
+        when(bookingRepository.findViewsByDistrictAfter("Lisboa", 0L, Limit.of(51))).thenReturn(Arrays.asList(BookingView.of(b1)));
 
-        List<Booking> result = bookingsService.getBookingsByDistrict("District");
+        List<BookingView> result = bookingsService.getBookingsByDistrict("Lisboa", null, 50).getItems();
 
         assertThat(result).isNotNull().isNotEmpty();
         assertThat(result).hasSize(1);
-        assertThat(result.get(0).getDistrict()).isEqualTo("District");
-        verify(bookingRepository, times(1)).findByDistrict("District");
+        assertThat(result.get(0).getDistrict()).isEqualTo("Lisboa");
+        verify(bookingRepository, times(1)).findViewsByDistrictAfter("Lisboa", 0L, Limit.of(51));
     }
 
         @Test
     @DisplayName("Get bookings by district returns empty list when no bookings exist")
     void testGetBookingsByDistrictEmpty() {
         String district = "Braga";
-        when(bookingRepository.findByDistrict(district)).thenReturn(Collections.emptyList());
+        when(bookingRepository.findViewsByDistrictAfter(district, 0L, Limit.of(51))).thenReturn(Collections.emptyList());
 
-        List<Booking> result = bookingsService.getBookingsByDistrict(district);
+        List<BookingView> result = bookingsService.getBookingsByDistrict(district, null, 50).getItems();
 
         assertThat(result).isNotNull().isEmpty();
-        verify(bookingRepository, times(1)).findByDistrict(district);
+        verify(bookingRepository, times(1)).findViewsByDistrictAfter(district, 0L, Limit.of(51));
+    }
+
+    @Test
+    @DisplayName("A full page hands out a cursor that resumes after its last booking")
+    void testBookingsPageCursor() {
+        BookingView b1 = BookingView.of(Booking.builder().id(4L).municipality("Lisboa").build());
+        BookingView b2 = BookingView.of(Booking.builder().id(9L).municipality("Lisboa").build());
+        BookingView b3 = BookingView.of(Booking.builder().id(12L).municipality("Lisboa").build());
+        when(bookingRepository.findViewsByMunicipalityAfter("Lisboa", 0L, Limit.of(3)))
+            .thenReturn(Arrays.asList(b1, b2, b3));
+
+        BookingPage first = bookingsService.getBookingsByMunicipality("Lisboa", null, 2);
+
+        assertThat(first.getItems()).containsExactly(b1, b2);
+        assertThat(first.getNextCursor()).isNotNull();
+
+        when(bookingRepository.findViewsByMunicipalityAfter("Lisboa", 9L, Limit.of(3)))
+            .thenReturn(Arrays.asList(b3));
+
+        BookingPage second = bookingsService.getBookingsByMunicipality("Lisboa", first.getNextCursor(), 2);
+
+        assertThat(second.getItems()).containsExactly(b3);
+        assertThat(second.getNextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Malformed cursors and out-of-range page sizes are rejected")
+    void testBookingsPageInvalidArguments() {
+        assertThrows(IllegalArgumentException.class, () -> bookingsService.getAllBookings("not a cursor!", 50));
+        assertThrows(IllegalArgumentException.class, () -> bookingsService.getAllBookings(null, 0));
+        assertThrows(IllegalArgumentException.class, () -> bookingsService.getAllBookings(null, BookingsService.MAX_PAGE_SIZE + 1));
+    }
+
+    @Test
+    @DisplayName("The change feed keeps its cursor when there is nothing new")
+    void testGetChangesSince() {
+        LocalDateTime settled = LocalDateTime.now().minusMinutes(1);
+        BookingChange c1 = new BookingChange(5L, 1L, State.RECEIVED, settled, "Lisboa", "Lisboa", testDate, LocalTime.of(10, 0));
+        BookingChange c2 = new BookingChange(8L, 1L, State.ASSIGNED, settled, "Lisboa", "Lisboa", testDate, LocalTime.of(10, 0));
+        when(bookingStateHistoryRepository.findChangesAfter(0L, Limit.of(2))).thenReturn(Arrays.asList(c1, c2));
+
+        ChangeFeed first = bookingsService.getChangesSince(null, 1);
+
+        assertThat(first.getChanges()).containsExactly(c1);
+        assertThat(first.isHasMore()).isTrue();
+
+        when(bookingStateHistoryRepository.findChangesAfter(5L, Limit.of(2))).thenReturn(Arrays.asList(c2));
+        ChangeFeed second = bookingsService.getChangesSince(first.getNextCursor(), 1);
+
+        assertThat(second.getChanges()).containsExactly(c2);
+        assertThat(second.isHasMore()).isFalse();
+
+        when(bookingStateHistoryRepository.findChangesAfter(8L, Limit.of(2))).thenReturn(Collections.emptyList());
+        ChangeFeed idle = bookingsService.getChangesSince(second.getNextCursor(), 1);
+
+        assertThat(idle.getChanges()).isEmpty();
+        assertThat(idle.getNextCursor()).isEqualTo(second.getNextCursor());
+    }
+
+    @Test
+    @DisplayName("The change feed stops at the first change younger than the commit lag")
+    void testGetChangesSinceStopsAtRecentChange() {
+        LocalDateTime settled = LocalDateTime.now().minusMinutes(1);
+        BookingChange c1 = new BookingChange(5L, 1L, State.RECEIVED, settled, "Lisboa", "Lisboa", testDate, LocalTime.of(10, 0));
+        BookingChange c2 = new BookingChange(6L, 2L, State.RECEIVED, LocalDateTime.now(), "Lisboa", "Lisboa", testDate, LocalTime.of(11, 0));
+        BookingChange c3 = new BookingChange(7L, 3L, State.RECEIVED, settled, "Lisboa", "Lisboa", testDate, LocalTime.of(12, 0));
+        when(bookingStateHistoryRepository.findChangesAfter(0L, Limit.of(11))).thenReturn(Arrays.asList(c1, c2, c3));
+
+        ChangeFeed feed = bookingsService.getChangesSince(null, 10);
+
+        assertThat(feed.getChanges()).containsExactly(c1);
+        assertThat(feed.isHasMore()).isFalse();
     }
 }
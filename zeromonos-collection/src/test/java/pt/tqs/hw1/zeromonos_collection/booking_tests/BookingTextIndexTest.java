@@ -0,0 +1,108 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.service.BookingTextIndex;
+
+@ExtendWith(MockitoExtension.class)
+class BookingTextIndexTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private BookingTextIndex index;
+
+    @BeforeEach
+    void setUp() {
+        index = new BookingTextIndex(bookingRepository, 3, 2);
+    }
+
+    @Test
+    @DisplayName("Tokens are lower-cased and accent-folded")
+    void testTokenize() {
+        assertThat(BookingTextIndex.tokenize("Frigorífico e COLCHÃO, 4700-123"))
+            .containsExactly("frigorifico", "e", "colchao", "4700", "123");
+        assertThat(BookingTextIndex.tokenize("  ")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Terms match as prefixes, are ANDed, and results come newest first")
+    void testSearch() {
+        index.index(booking(1L, "Frigorífico velho", "Sintra", "2710-001"));
+        index.index(booking(2L, "Colchão de casal", "Sintra", "2710-002"));
+        index.index(booking(3L, "frigorifico e colchão", "Cascais", "2750-001"));
+
+        assertThat(index.search("frigor", 10)).containsExactly(3L, 1L);
+        assertThat(index.search("colchao sintra", 10)).containsExactly(2L);
+        assertThat(index.search("2710-002", 10)).containsExactly(2L);
+        assertThat(index.search("colch", 1)).containsExactly(3L);
+        assertThat(index.search("sofa", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Indexing the same booking twice does not duplicate it")
+    void testIndexIsIdempotent() {
+        Booking booking = booking(5L, "Frigorífico", "Sintra", "2710-001");
+        index.index(booking);
+        index.index(booking);
+
+        assertThat(index.search("frigorifico", 10)).containsExactly(5L);
+    }
+
+    @Test
+    @DisplayName("Queries without a usable term are rejected")
+    void testSearchNeedsTerm() {
+        assertThrows(IllegalArgumentException.class, () -> index.search("a -", 10));
+    }
+
+    @Test
+    @DisplayName("Rebuild reads every segment in batches and merges with live updates")
+    void testRebuild() {
+        List<Object[]> rows = new ArrayList<>();
+        for (long id = 1; id <= 7; id++) {
+            rows.add(new Object[] {id, id % 2 == 0 ? "colchão" : "frigorífico", "Sintra", "2710-00" + id});
+        }
+        when(bookingRepository.findMaxId()).thenReturn(7L);
+        when(bookingRepository.findTextBetween(anyLong(), anyLong(), any(Limit.class))).thenAnswer(invocation -> {
+            long afterId = invocation.getArgument(0);
+            long toId = invocation.getArgument(1);
+            int max = invocation.<Limit>getArgument(2).max();
+            return rows.stream()
+                .filter(row -> (Long) row[0] > afterId && (Long) row[0] <= toId)
+                .limit(max)
+                .toList();
+        });
+        index.index(booking(8L, "colchão novo", "Sintra", "2710-008"));
+
+        index.rebuild();
+
+        assertThat(index.search("colchao", 10)).containsExactly(8L, 6L, 4L, 2L);
+        assertThat(index.search("frigo sintra", 10)).containsExactly(7L, 5L, 3L, 1L);
+    }
+
+    private Booking booking(Long id, String description, String village, String postalCode) {
+        return Booking.builder()
+            .id(id)
+            .description(description)
+            .village(village)
+            .postalCode(postalCode)
+            .build();
+    }
+}
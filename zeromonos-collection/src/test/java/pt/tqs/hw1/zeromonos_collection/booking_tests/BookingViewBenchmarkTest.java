@@ -0,0 +1,129 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.sun.management.ThreadMXBean;
+
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingView;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.LocationDictionary;
+
+/**
+ * Heap allocated and time spent per request when list and public endpoints read
+ * managed {@link Booking} entities versus the {@link BookingView} projections.
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=BookingViewBenchmarkTest}.
+ */
+@Slf4j
+@DataJpaTest
+@Import(LocationDictionary.class)
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class BookingViewBenchmarkTest {
+
+    private static final int BOOKINGS = 10_000;
+    private static final int PAGE = 200;
+    private static final int WARMUP = 200;
+    private static final int ITERATIONS = 500;
+
+    private final ThreadMXBean threads = (ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+        .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    @DisplayName("Benchmark entity versus projection reads.")
+    void benchmarkReads() throws Exception {
+        jdbcTemplate.update("""
+            insert into booking (district_id, municipality_id, village, postal_code, date, time,
+                                 description, token, state, created_by)
+            select 12, 123, 'Sintra', '2710-000', date '2030-01-01' + mod(x, 90),
+                   time '08:00:00' + mod(x, 9) * interval '1' hour, 'old fridge and two chairs ' || x,
+                   'token-' || x, 'RECEIVED', 'citizen' || mod(x, 500) || '@email.com'
+            from system_range(1, ?)
+            """, BOOKINGS);
+
+        // one page per request, each request with its own persistence context
+        Supplier<String> entityPage = () -> json(entityManager
+            .createQuery("SELECT b FROM Booking b WHERE b.id > :afterId ORDER BY b.id", Booking.class)
+            .setParameter("afterId", 0L)
+            .setMaxResults(PAGE + 1)
+            .getResultList());
+        Supplier<String> viewPage = () -> json(bookingRepository.findViewsAfter(0L, Limit.of(PAGE + 1)));
+        Supplier<String> entityPublic = () -> json(entityManager
+            .createQuery("SELECT b FROM Booking b WHERE b.token = :token", Booking.class)
+            .setParameter("token", "token-42")
+            .getSingleResult());
+        Supplier<String> viewPublic = () -> json(bookingRepository.findPublicViewByToken("token-42").orElseThrow());
+
+        double listSaving = report("List page (" + PAGE + ")", entityPage, viewPage);
+        report("Public view", entityPublic, viewPublic);
+
+        List<BookingView> page = bookingRepository.findViewsAfter(0L, Limit.of(PAGE));
+        assertEquals(PAGE, page.size());
+        assertTrue(listSaving > 1, "list pages read through views should allocate less than through entities");
+    }
+
+    // logs both measurements and returns how many times less heap the views allocated
+    private double report(String name, Supplier<String> entities, Supplier<String> views) {
+        long[] entity = measure(entities);
+        long[] view = measure(views);
+        double saving = (double) entity[0] / view[0];
+        log.info("{}: entities {} KiB, {} us, {} B json; views {} KiB, {} us, {} B json ({}x less heap)",
+            name, entity[0] / 1024, entity[1] / 1000, entity[2], view[0] / 1024, view[1] / 1000, view[2],
+            String.format("%.1f", saving));
+        return saving;
+    }
+
+    // [allocated bytes, nanoseconds, response bytes] per request
+    private long[] measure(Supplier<String> request) {
+        long length = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            length = request.get().length();
+            entityManager.clear();
+        }
+        long allocated = threads.getCurrentThreadAllocatedBytes();
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            request.get();
+            entityManager.clear();
+        }
+        long elapsed = System.nanoTime() - start;
+        allocated = threads.getCurrentThreadAllocatedBytes() - allocated;
+        return new long[] {allocated / ITERATIONS, elapsed / ITERATIONS, length};
+    }
+
+    private String json(Object body) {
+        try {
+            return objectMapper.writeValueAsString(body);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,17 +1,24 @@
 package pt.tqs.hw1.zeromonos_collection.booking_tests;
 
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.temporal.TemporalAdjusters;
+import java.util.zip.GZIPInputStream;
 
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -33,10 +40,16 @@ import pt.tqs.hw1.zeromonos_collection.entity.BookingStateUpdateRequest;
 import pt.tqs.hw1.zeromonos_collection.entity.State;
 import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
 import pt.tqs.hw1.zeromonos_collection.repository.BookingStateHistoryRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.DailyCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.SlotCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.service.BookingTextIndex;
+import pt.tqs.hw1.zeromonos_collection.service.PublicBookingCache;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.not;
 
-@SpringBootTest
+// changes are served as soon as they commit; BookingChangeFeedTest covers the lag
+@SpringBootTest(properties = "changes.commit-lag=0s")
 @AutoConfigureMockMvc
 class BookingsControllerTest {
     
@@ -52,6 +65,18 @@ class BookingsControllerTest {
     @Autowired
     private BookingStateHistoryRepository bookingStateHistoryRepository;
 
+    @Autowired
+    private BookingTextIndex bookingTextIndex;
+
+    @Autowired
+    private PublicBookingCache publicBookingCache;
+
+    @Autowired
+    private DailyCapacityRepository dailyCapacityRepository;
+
+    @Autowired
+    private SlotCapacityRepository slotCapacityRepository;
+
     private static Booking b;
     private LocalDate futureDate = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
 
@@ -59,10 +84,14 @@ class BookingsControllerTest {
     @AfterEach
     void cleanDatabase() {
         bookingRepository.deleteAll();
+        // the ledger outlives the bookings, so a slot taken by one test would be full in the next
+        dailyCapacityRepository.deleteAll();
+        slotCapacityRepository.deleteAll();
+        publicBookingCache.getCache().invalidateAll();
         b = bookingRepository.save(
             Booking.builder()
-                .district("District")
-                .municipality("Lisbon")
+                .district("Lisboa")
+                .municipality("Lisboa")
                 .village("Sintra")
                 .postalCode("0000-000")
                 .date(futureDate)
@@ -90,8 +119,8 @@ class BookingsControllerTest {
     void testGetBookingByToken() throws Exception {
         Booking booking = bookingRepository.save(
             Booking.builder()
-                .district("District")
-                .municipality("Lisbon")
+                .district("Lisboa")
+                .municipality("Lisboa")
                 .village("Sintra")
                 .postalCode("0000-000")
                 .date(futureDate)
@@ -105,8 +134,34 @@ class BookingsControllerTest {
 
         mockMvc.perform(get("/api/v1/bookings/public/{token}", booking.getToken()))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$.municipality").value("Lisbon"))
-            .andExpect(jsonPath("$.state").value("RECEIVED"));
+            .andExpect(jsonPath("$.municipality").value("Lisboa"))
+            .andExpect(jsonPath("$.state").value("RECEIVED"))
+            .andExpect(jsonPath("$.createdBy").doesNotExist())
+            .andExpect(jsonPath("$.token").doesNotExist())
+            .andExpect(jsonPath("$.id").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/bookings/public/{token} answers 304 until the booking changes")
+    void testGetBookingByTokenConditional() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/bookings/public/{token}", "tok1"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Cache-Control", "no-cache"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/bookings/public/{token}", "tok1").header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+
+        mockMvc.perform(put("/api/v1/bookings/{id}/state", b.getId())
+            .with(user("staff@email.com").roles("STAFF"))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(new BookingStateUpdateRequest(State.ASSIGNED))))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/bookings/public/{token}", "tok1").header("If-None-Match", etag))
+            .andExpect(status().isOk())
+            .andExpect(header().string("ETag", not(etag)))
+            .andExpect(jsonPath("$.state").value("ASSIGNED"));
     }
 
     @Test
@@ -121,8 +176,8 @@ class BookingsControllerTest {
     @DisplayName("POST /api/v1/bookings creates a booking successfully")
     void testCreateBooking() throws Exception {
         BookingRequest request = BookingRequest.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(futureDate)
@@ -134,7 +189,7 @@ class BookingsControllerTest {
             .contentType(MediaType.APPLICATION_JSON)
             .content(objectMapper.writeValueAsString(request)))
             .andExpect(status().isCreated())
-            .andExpect(jsonPath("$.municipality").value("Lisbon"))
+            .andExpect(jsonPath("$.municipality").value("Lisboa"))
             .andExpect(jsonPath("$.state").value("RECEIVED"));
     }
 
@@ -143,8 +198,8 @@ class BookingsControllerTest {
     @DisplayName("POST /api/v1/bookings doesn't create a booking")
     void testStaffCreateBooking() throws Exception {
         BookingRequest request = BookingRequest.builder()
-            .district("District")
-            .municipality("Lisbon")
+            .district("Lisboa")
+            .municipality("Lisboa")
             .village("Sintra")
             .postalCode("0000-000")
             .date(futureDate)
@@ -165,7 +220,7 @@ class BookingsControllerTest {
     void testGetBookingsForCitizen() throws Exception {
         bookingRepository.save(
             Booking.builder()
-                .district("District")
+                .district("Porto")
                 .municipality("Porto")
                 .village("Sintra")
                 .postalCode("0000-000")
@@ -180,7 +235,7 @@ class BookingsControllerTest {
 
         mockMvc.perform(get("/api/v1/bookings/me"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$[0].municipality").value("Lisbon"))
+            .andExpect(jsonPath("$[0].municipality").value("Lisboa"))
             .andExpect(jsonPath("$", hasSize(1)));
     }
 
@@ -198,8 +253,8 @@ class BookingsControllerTest {
     void testCancelBooking() throws Exception {
         Booking booking = bookingRepository.save(
             Booking.builder()
-                .district("District")
-                .municipality("Lisbon")
+                .district("Lisboa")
+                .municipality("Lisboa")
                 .village("Sintra")
                 .postalCode("0000-000")
                 .date(futureDate)
@@ -222,7 +277,7 @@ class BookingsControllerTest {
     void testGetAllBookingsStaff() throws Exception {
         mockMvc.perform(get("/api/v1/bookings"))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$[0].municipality").value("Lisbon"));
+            .andExpect(jsonPath("$[0].municipality").value("Lisboa"));
     }
 
     @Test
@@ -231,7 +286,7 @@ class BookingsControllerTest {
     void testGetBookingDetailsForCitizen() throws Exception {
         mockMvc.perform(get("/api/v1/bookings/{id}", b.getId()))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$.municipality").value("Lisbon"));
+            .andExpect(jsonPath("$.municipality").value("Lisboa"));
     }
 
     @Test
@@ -240,7 +295,7 @@ class BookingsControllerTest {
     void testGetBookingDetailsForStaff() throws Exception {
         mockMvc.perform(get("/api/v1/bookings/{id}", b.getId()))
             .andExpect(status().isOk())
-            .andExpect(jsonPath("$.municipality").value("Lisbon"));
+            .andExpect(jsonPath("$.municipality").value("Lisboa"));
     }
 
     @Test
@@ -293,20 +348,98 @@ class BookingsControllerTest {
     @DisplayName("GET /api/v1/bookings/available-times returns avilable hours")
     void testGetAvailableTimes() throws Exception {
         mockMvc.perform(get("/api/v1/bookings/available-times")
-            .param("municipality", "Lisbon")
+            .param("municipality", "Lisboa")
             .param("date", futureDate.toString()))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$").isArray());
     }
 
+    @Test
+    @WithMockUser(username = "bob@email.com", roles = {"CITIZEN"})
+    @DisplayName("GET /api/v1/bookings/available-times/range returns open days only")
+    void testGetAvailabilityRange() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/available-times/range")
+            .param("municipality", "Lisboa")
+            .param("from", futureDate.toString())
+            .param("to", futureDate.plusDays(6).toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(5)))
+            .andExpect(jsonPath("$[0].date").value(futureDate.toString()))
+            .andExpect(jsonPath("$[0].remainingCapacity").value(9))
+            .andExpect(jsonPath("$[0].availableTimes", hasSize(8)));
+    }
+
+    @Test
+    @WithMockUser(username = "guest@email.com", roles = {"GUEST"})
+    @DisplayName("GET /api/v1/bookings/available-times/range is for citizens and staff")
+    void testGetAvailabilityRangeRole() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/available-times/range")
+            .param("municipality", "Lisboa")
+            .param("from", futureDate.toString())
+            .param("to", futureDate.plusDays(6).toString()))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "guest@email.com", roles = {"GUEST"})
+    @DisplayName("GET /api/v1/bookings/available-times/next is for citizens and staff")
+    void testFindNextAvailableRole() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/available-times/next")
+            .param("municipality", "Lisboa"))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @DisplayName("POST /api/v1/bookings/holds keeps the slot for its owner only")
+    void testHoldThenBook() throws Exception {
+        BookingRequest request = BookingRequest.builder()
+            .district("Porto")
+            .municipality("Porto")
+            .village("Foz")
+            .postalCode("0000-000")
+            .date(futureDate)
+            .time(LocalTime.of(11, 0))
+            .description("item 1")
+            .build();
+
+        String body = mockMvc.perform(post("/api/v1/bookings/holds")
+            .with(user("bob@email.com").roles("CITIZEN"))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.expiresAt").exists())
+            .andReturn().getResponse().getContentAsString();
+        String holdId = objectMapper.readTree(body).get("id").asText();
+
+        // someone else cannot take the held slot
+        mockMvc.perform(post("/api/v1/bookings")
+            .with(user("alice@email.com").roles("CITIZEN"))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isBadRequest());
+
+        request.setHoldId(holdId);
+        mockMvc.perform(post("/api/v1/bookings")
+            .with(user("bob@email.com").roles("CITIZEN"))
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(request)))
+            .andExpect(status().isCreated())
+            .andExpect(jsonPath("$.municipality").value("Porto"));
+
+        // the hold was used up
+        mockMvc.perform(delete("/api/v1/bookings/holds/{holdId}", holdId)
+            .with(user("bob@email.com").roles("CITIZEN")))
+            .andExpect(status().isNotFound());
+    }
+
     @Test
     @WithMockUser(username = "staff@email.com", roles = {"STAFF"})
     @DisplayName("GET /api/v1/bookings/municipality/{municipality} returns bookings for staff")
     void testGetBookingsByMunicipality() throws Exception {
         bookingRepository.save(
             Booking.builder()
-                .district("District")
-                .municipality("Lisbon")
+                .district("Lisboa")
+                .municipality("Lisboa")
                 .village("Cascais")
                 .postalCode("1111-111")
                 .date(futureDate.plusDays(1))
@@ -318,26 +451,202 @@ class BookingsControllerTest {
                 .build()
         );
         
-        mockMvc.perform(get("/api/v1/bookings/municipality/{municipality}", "Lisbon"))
+        mockMvc.perform(get("/api/v1/bookings/municipality/{municipality}", "Lisboa"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$").isArray())
             .andExpect(jsonPath("$.length()").value(2))
-            .andExpect(jsonPath("$[0].municipality").value("Lisbon"))
-            .andExpect(jsonPath("$[1].municipality").value("Lisbon"));
+            .andExpect(jsonPath("$[0].municipality").value("Lisboa"))
+            .andExpect(jsonPath("$[1].municipality").value("Lisboa"));
+    }
+
+    @Test
+    @WithMockUser(username = "staff@email.com", roles = {"STAFF"})
+    @DisplayName("GET /api/v1/bookings/municipality/{municipality} pages with the X-Next-Cursor header")
+    void testGetBookingsByMunicipalityPaged() throws Exception {
+        Booking second = bookingRepository.save(
+            Booking.builder()
+                .district("Lisboa")
+                .municipality("Lisboa")
+                .village("Cascais")
+                .postalCode("1111-111")
+                .date(futureDate.plusDays(1))
+                .time(LocalTime.of(10, 0))
+                .description("item 2")
+                .state(State.ASSIGNED)
+                .token("tok2")
+                .createdBy("alice@email.com")
+                .build()
+        );
+
+        String cursor = mockMvc.perform(get("/api/v1/bookings/municipality/{municipality}", "Lisboa").param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].id").value(b.getId()))
+            .andExpect(header().exists("X-Next-Cursor"))
+            .andReturn().getResponse().getHeader("X-Next-Cursor");
+
+        mockMvc.perform(get("/api/v1/bookings/municipality/{municipality}", "Lisboa").param("size", "1").param("cursor", cursor))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(1))
+            .andExpect(jsonPath("$[0].id").value(second.getId()))
+            .andExpect(header().doesNotExist("X-Next-Cursor"));
+
+        mockMvc.perform(get("/api/v1/bookings/municipality/{municipality}", "Lisboa").param("cursor", "garbage"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "staff@email.com", roles = {"STAFF"})
+    @DisplayName("GET /api/v1/bookings/text-search finds bookings by accent-insensitive fragments")
+    void testSearchText() throws Exception {
+        b.setDescription("Frigorífico avariado");
+        bookingRepository.save(b);
+        bookingTextIndex.rebuild();
+
+        mockMvc.perform(get("/api/v1/bookings/text-search").param("q", "frigorif sintra"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].token").value("tok1"));
+
+        mockMvc.perform(get("/api/v1/bookings/text-search").param("q", "colchao"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(0)));
+
+        mockMvc.perform(get("/api/v1/bookings/text-search").param("q", "x"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "staff@email.com", roles = {"STAFF"})
+    @DisplayName("GET /api/v1/bookings/search combines any of its filters")
+    void testSearchBookings() throws Exception {
+        bookingRepository.save(
+            Booking.builder()
+                .district("Lisboa")
+                .municipality("Lisboa")
+                .village("Cascais")
+                .postalCode("1111-111")
+                .date(futureDate.plusDays(1))
+                .time(LocalTime.of(10, 0))
+                .description("item 2")
+                .state(State.ASSIGNED)
+                .token("tok2")
+                .createdBy("alice@email.com")
+                .build()
+        );
+
+        mockMvc.perform(get("/api/v1/bookings/search"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(2)));
+
+        mockMvc.perform(get("/api/v1/bookings/search")
+                .param("municipality", "Lisboa")
+                .param("state", "ASSIGNED", "DONE"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].token").value("tok2"));
+
+        mockMvc.perform(get("/api/v1/bookings/search")
+                .param("district", "Lisboa")
+                .param("createdBy", "bob@email.com")
+                .param("from", futureDate.toString())
+                .param("to", futureDate.toString()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(jsonPath("$[0].token").value("tok1"));
+
+        mockMvc.perform(get("/api/v1/bookings/search").param("size", "1"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$", hasSize(1)))
+            .andExpect(header().exists("X-Next-Cursor"));
+
+        mockMvc.perform(get("/api/v1/bookings/search")
+                .param("from", futureDate.plusDays(1).toString())
+                .param("to", futureDate.toString()))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "citizen@email.com", roles = {"CITIZEN"})
+    @DisplayName("GET /api/v1/bookings/search returns 403 for citizen")
+    void testSearchBookingsForbiddenForCitizen() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/search"))
+            .andExpect(status().isForbidden());
+    }
+
+    @Test
+    @WithMockUser(username = "staff@email.com", roles = {"STAFF"})
+    @DisplayName("GET /api/v1/bookings/changes returns transitions after the cursor")
+    void testGetChanges() throws Exception {
+        String cursor = mockMvc.perform(get("/api/v1/bookings/changes"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changes", hasSize(1)))
+            .andExpect(jsonPath("$.changes[0].bookingId").value(b.getId()))
+            .andExpect(jsonPath("$.changes[0].state").value("RECEIVED"))
+            .andExpect(jsonPath("$.changes[0].municipality").value("Lisboa"))
+            .andExpect(jsonPath("$.hasMore").value(false))
+            .andReturn().getResponse().getContentAsString();
+        String since = objectMapper.readTree(cursor).get("nextCursor").asText();
+
+        mockMvc.perform(get("/api/v1/bookings/changes").param("since", since))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changes", hasSize(0)))
+            .andExpect(jsonPath("$.nextCursor").value(since));
+
+        mockMvc.perform(put("/api/v1/bookings/{id}/state", b.getId())
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BookingStateUpdateRequest(State.ASSIGNED))))
+            .andExpect(status().isOk());
+
+        mockMvc.perform(get("/api/v1/bookings/changes").param("since", since))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.changes", hasSize(1)))
+            .andExpect(jsonPath("$.changes[0].state").value("ASSIGNED"));
+    }
+
+    @Test
+    @WithMockUser(username = "staff@email.com", roles = {"STAFF"})
+    @DisplayName("GET /api/v1/bookings/export streams one JSON booking per line")
+    void testExportBookings() throws Exception {
+        byte[] plain = mockMvc.perform(get("/api/v1/bookings/export"))
+            .andExpect(status().isOk())
+            .andExpect(content().contentTypeCompatibleWith("application/x-ndjson"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        String[] lines = new String(plain, StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(1);
+        assertThat(objectMapper.readValue(lines[0], Booking.class).getToken()).isEqualTo("tok1");
+
+        byte[] zipped = mockMvc.perform(get("/api/v1/bookings/export").param("gzip", "true"))
+            .andExpect(status().isOk())
+            .andExpect(header().string("Content-Encoding", "gzip"))
+            .andReturn().getResponse().getContentAsByteArray();
+
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(zipped))) {
+            assertThat(in.readAllBytes()).isEqualTo(plain);
+        }
+    }
+
+    @Test
+    @WithMockUser(username = "citizen@email.com", roles = {"CITIZEN"})
+    @DisplayName("GET /api/v1/bookings/export returns 403 for citizen")
+    void testExportBookingsForbiddenForCitizen() throws Exception {
+        mockMvc.perform(get("/api/v1/bookings/export"))
+            .andExpect(status().isForbidden());
     }
 
     @Test
     @WithMockUser(username = "citizen@email.com", roles = {"CITIZEN"})
     @DisplayName("GET /api/v1/bookings/municipality/{municipality} returns 403 for citizen")
     void testGetBookingsByMunicipalityForbiddenForCitizen() throws Exception {
-        mockMvc.perform(get("/api/v1/bookings/municipality/{municipality}", "Lisbon"))
+        mockMvc.perform(get("/api/v1/bookings/municipality/{municipality}", "Lisboa"))
             .andExpect(status().isForbidden());
     }
 
     @Test
     @DisplayName("GET /api/v1/bookings/municipality/{municipality} returns 401 for unauthenticated users")
     void testGetBookingsByMunicipalityUnauthorized() throws Exception {
-        mockMvc.perform(get("/api/v1/bookings/municipality/{municipality}", "Lisbon"))
+        mockMvc.perform(get("/api/v1/bookings/municipality/{municipality}", "Lisboa"))
             .andExpect(status().isForbidden());
     }
 
@@ -347,7 +656,7 @@ class BookingsControllerTest {
     void testGetBookingsByDistrict() throws Exception {
         bookingRepository.save(
             Booking.builder()
-                .district("Viana")
+                .district("Viana do Castelo")
                 .municipality("Ponte de Lima")
                 .village("Cascais")
                 .postalCode("1111-111")
@@ -360,11 +669,11 @@ class BookingsControllerTest {
                 .build()
         );
 
-        mockMvc.perform(get("/api/v1/bookings/district/{district}", "Viana"))
+        mockMvc.perform(get("/api/v1/bookings/district/{district}", "Viana do Castelo"))
             .andExpect(status().isOk())
             .andExpect(jsonPath("$").isArray())
             .andExpect(jsonPath("$.length()").value(1))
-            .andExpect(jsonPath("$[0].district").value("Viana"))
+            .andExpect(jsonPath("$[0].district").value("Viana do Castelo"))
             .andExpect(jsonPath("$[0].municipality").value("Ponte de Lima"));
     }
 
@@ -372,14 +681,14 @@ class BookingsControllerTest {
     @WithMockUser(username = "citizen@email.com", roles = {"CITIZEN"})
     @DisplayName("GET /api/v1/bookings/district/{district}} returns 403 for citizen")
     void testGetBookingsByDistrictForbiddenForCitizen() throws Exception {
-        mockMvc.perform(get("/api/v1/bookings/district/{municipality}", "Viana"))
+        mockMvc.perform(get("/api/v1/bookings/district/{municipality}", "Viana do Castelo"))
             .andExpect(status().isForbidden());
     }
 
     @Test
     @DisplayName("GET /api/v1/bookings/district/{district} returns 401 for unauthenticated users")
     void testGetBookingsByDistrictUnauthorized() throws Exception {
-        mockMvc.perform(get("/api/v1/bookings/district/{district}", "Viana"))
+        mockMvc.perform(get("/api/v1/bookings/district/{district}", "Viana do Castelo"))
             .andExpect(status().isForbidden());
     }
 }
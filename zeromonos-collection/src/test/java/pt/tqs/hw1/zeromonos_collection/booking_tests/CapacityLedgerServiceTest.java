@@ -0,0 +1,152 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import pt.tqs.hw1.zeromonos_collection.entity.Booking;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingRequest;
+import pt.tqs.hw1.zeromonos_collection.entity.State;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingStateHistoryRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.DailyCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.SlotCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.service.BookingsService;
+import pt.tqs.hw1.zeromonos_collection.service.SlotAvailabilityService;
+
+// two bookings per slot, so ten bookings a day fit in the nine hourly slots
+@SpringBootTest(properties = "booking.default-policy.slot-capacity=2")
+class CapacityLedgerServiceTest {
+
+    @Autowired
+    private BookingsService bookingsService;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingStateHistoryRepository bookingStateHistoryRepository;
+
+    @Autowired
+    private DailyCapacityRepository dailyCapacityRepository;
+
+    @Autowired
+    private SlotCapacityRepository slotCapacityRepository;
+
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+
+    private LocalDate futureDate = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    @BeforeEach
+    @AfterEach
+    void cleanDatabase() {
+        bookingStateHistoryRepository.deleteAll();
+        bookingRepository.deleteAll();
+        dailyCapacityRepository.deleteAll();
+        slotCapacityRepository.deleteAll();
+        slotAvailabilityService.invalidateAll();
+    }
+
+    @Test
+    @DisplayName("Concurrent bookings never exceed the daily capacity")
+    void testConcurrentBookingsRespectCapacity() throws Exception {
+        int attempts = 30;
+        ExecutorService pool = Executors.newFixedThreadPool(10);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < attempts; i++) {
+            LocalTime time = LocalTime.of(8 + i % 9, 0);
+            results.add(pool.submit(bookingAttempt(time)));
+        }
+
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            accepted += result.get() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertThat(accepted).isEqualTo(10);
+        assertThat(bookingRepository.countByMunicipalityAndDateAndStateNot("Lisboa", futureDate, State.CANCELED)).isEqualTo(10);
+    }
+
+    @Test
+    @DisplayName("Concurrent bookings for the same slot admit only the slot capacity")
+    void testConcurrentBookingsRespectSlotCapacity() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(pool.submit(bookingAttempt(LocalTime.of(11, 0))));
+        }
+
+        int accepted = 0;
+        for (Future<Boolean> result : results) {
+            accepted += result.get() ? 1 : 0;
+        }
+        pool.shutdown();
+
+        assertThat(accepted).isEqualTo(2);
+        assertThat(bookingsService.getAvailableTimes("Lisboa", futureDate)).doesNotContain(LocalTime.of(11, 0));
+    }
+
+    @Test
+    @DisplayName("Canceling a booking frees its spot")
+    void testCancelReleasesSpot() throws Exception {
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            bookings.add(bookingsService.createBooking(request(LocalTime.of(8 + i % 9, 0)), "bob@email.com"));
+        }
+        assertThat(bookingAttempt(LocalTime.of(10, 0)).call()).isFalse();
+
+        assertThat(bookingsService.getAvailableTimes("Lisboa", futureDate)).isEmpty();
+
+        // 08:00 holds two bookings and stays full, every other slot has room again
+        bookingsService.cancelBooking(bookings.get(1).getId());
+        assertThat(bookingsService.getAvailableTimes("Lisboa", futureDate))
+            .hasSize(8)
+            .doesNotContain(LocalTime.of(8, 0));
+
+        assertThat(bookingAttempt(LocalTime.of(8, 0)).call()).isFalse();
+        assertThat(bookingAttempt(LocalTime.of(9, 0)).call()).isTrue();
+        assertThat(bookingRepository.countByMunicipalityAndDateAndStateNot("Lisboa", futureDate, State.CANCELED))
+            .isEqualTo(10);
+    }
+
+    private Callable<Boolean> bookingAttempt(LocalTime time) {
+        return () -> {
+            try {
+                bookingsService.createBooking(request(time), "bob@email.com");
+                return true;
+            } catch (IllegalArgumentException e) {
+                return false;
+            }
+        };
+    }
+
+    private BookingRequest request(LocalTime time) {
+        return BookingRequest.builder()
+            .district("Lisboa")
+            .municipality("Lisboa")
+            .village("Sintra")
+            .postalCode("0000-000")
+            .date(futureDate)
+            .time(time)
+            .description("item 1")
+            .build();
+    }
+}
@@ -0,0 +1,104 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import pt.tqs.hw1.zeromonos_collection.entity.BookingRequest;
+import pt.tqs.hw1.zeromonos_collection.entity.DailyCapacity;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingStateHistoryRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.DailyCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.SlotCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.service.BookingsService;
+import pt.tqs.hw1.zeromonos_collection.service.InMemoryCapacityLedger;
+import pt.tqs.hw1.zeromonos_collection.service.SlotAvailabilityService;
+
+@SpringBootTest(properties = "capacity.in-memory.enabled=true")
+class InMemoryCapacityLedgerBookingTest {
+
+    @Autowired
+    private BookingsService bookingsService;
+
+    @Autowired
+    private InMemoryCapacityLedger inMemoryCapacityLedger;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingStateHistoryRepository bookingStateHistoryRepository;
+
+    @Autowired
+    private DailyCapacityRepository dailyCapacityRepository;
+
+    @Autowired
+    private SlotCapacityRepository slotCapacityRepository;
+
+    @Autowired
+    private SlotAvailabilityService slotAvailabilityService;
+
+    private LocalDate futureDate = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    @BeforeEach
+    @AfterEach
+    void cleanDatabase() {
+        bookingStateHistoryRepository.deleteAll();
+        bookingRepository.deleteAll();
+        dailyCapacityRepository.deleteAll();
+        slotCapacityRepository.deleteAll();
+        slotAvailabilityService.invalidateAll();
+        inMemoryCapacityLedger.reconcile();
+    }
+
+    @Test
+    @DisplayName("A rejected booking leaves the day's real count in memory")
+    void testRejectedKeepsRealCount() {
+        // the day was filled above the current capacity before the policy was lowered
+        dailyCapacityRepository.save(DailyCapacity.builder().municipality("Lisboa").date(futureDate).used(12).build());
+
+        BookingRequest request = request(LocalTime.of(9, 0));
+        assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
+
+        assertThat(inMemoryCapacityLedger.isKnownFull("Lisboa", futureDate, 12)).isTrue();
+        assertThat(inMemoryCapacityLedger.isKnownFull("Lisboa", futureDate, 13)).isFalse();
+    }
+
+    @Test
+    @DisplayName("A day whose ledger row is gone gets a new one")
+    void testRowDeleted() {
+        bookingsService.createBooking(request(LocalTime.of(9, 0)), "bob@email.com");
+        dailyCapacityRepository.deleteAll();
+
+        BookingRequest request = request(LocalTime.of(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> bookingsService.createBooking(request, "bob@email.com"));
+        assertThat(inMemoryCapacityLedger.isTracked("Lisboa", futureDate)).isFalse();
+
+        bookingsService.createBooking(request, "bob@email.com");
+        assertThat(dailyCapacityRepository.findByMunicipalityAndDate("Lisboa", futureDate))
+            .hasValueSatisfying(row -> assertThat(row.getUsed()).isEqualTo(2));
+    }
+
+    private BookingRequest request(LocalTime time) {
+        return BookingRequest.builder()
+            .district("Lisboa")
+            .municipality("Lisboa")
+            .village("Sintra")
+            .postalCode("0000-000")
+            .date(futureDate)
+            .time(time)
+            .description("item 1")
+            .build();
+    }
+}
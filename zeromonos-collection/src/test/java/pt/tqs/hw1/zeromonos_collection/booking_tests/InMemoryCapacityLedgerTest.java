@@ -0,0 +1,118 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import pt.tqs.hw1.zeromonos_collection.entity.DailyCapacity;
+import pt.tqs.hw1.zeromonos_collection.repository.DailyCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.service.InMemoryCapacityLedger;
+import pt.tqs.hw1.zeromonos_collection.service.StripedLongIntMap;
+
+@ExtendWith(MockitoExtension.class)
+class InMemoryCapacityLedgerTest {
+
+    @Mock
+    private DailyCapacityRepository dailyCapacityRepository;
+
+    private InMemoryCapacityLedger ledger;
+    private LocalDate tomorrow = LocalDate.now().plusDays(1);
+
+    @BeforeEach
+    void setUp() {
+        ledger = new InMemoryCapacityLedger(dailyCapacityRepository);
+    }
+
+    @Test
+    @DisplayName("A day is only known full once its counter reaches the max")
+    void testKnownFull() {
+        assertThat(ledger.isKnownFull("Lisbon", tomorrow, 10)).isFalse();
+
+        ledger.track("Lisbon", tomorrow, 9);
+        assertThat(ledger.isKnownFull("Lisbon", tomorrow, 10)).isFalse();
+
+        ledger.add("Lisbon", tomorrow, 1);
+        assertThat(ledger.isKnownFull("Lisbon", tomorrow, 10)).isTrue();
+        assertThat(ledger.isKnownFull("Porto", tomorrow, 10)).isFalse();
+    }
+
+    @Test
+    @DisplayName("Reconcile takes the database values and drops past days")
+    void testReconcile() {
+        ledger.track("Lisbon", tomorrow, 10);
+        ledger.track("Lisbon", LocalDate.now().minusDays(1), 4);
+        when(dailyCapacityRepository.findByDateGreaterThanEqual(any())).thenReturn(List.of(
+            new DailyCapacity(1L, "Lisbon", tomorrow, 7)));
+
+        ledger.reconcile();
+
+        assertThat(ledger.size()).isEqualTo(1);
+        assertThat(ledger.isKnownFull("Lisbon", tomorrow, 8)).isFalse();
+        assertThat(ledger.isKnownFull("Lisbon", tomorrow, 7)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Reconcile drops future days that have no database row")
+    void testReconcileDropsDaysWithoutRow() {
+        ledger.track("Lisbon", tomorrow, 10);
+        ledger.track("Aveiro", tomorrow, 2);
+        when(dailyCapacityRepository.findByDateGreaterThanEqual(any())).thenReturn(List.of(
+            new DailyCapacity(1L, "Aveiro", tomorrow, 2)));
+
+        ledger.reconcile();
+
+        assertThat(ledger.size()).isEqualTo(1);
+        assertThat(ledger.isTracked("Lisbon", tomorrow)).isFalse();
+        assertThat(ledger.isKnownFull("Lisbon", tomorrow, 10)).isFalse();
+        assertThat(ledger.isTracked("Aveiro", tomorrow)).isTrue();
+    }
+
+    @Test
+    @DisplayName("A forgotten day is no longer tracked")
+    void testForget() {
+        ledger.track("Lisbon", tomorrow, 10);
+        ledger.forget("Lisbon", tomorrow);
+        ledger.forget("Porto", tomorrow);
+
+        assertThat(ledger.isTracked("Lisbon", tomorrow)).isFalse();
+        assertThat(ledger.isKnownFull("Lisbon", tomorrow, 10)).isFalse();
+        assertThat(ledger.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Striped map stays consistent under concurrent updates")
+    void testStripedMapConcurrency() throws Exception {
+        StripedLongIntMap map = new StripedLongIntMap(8);
+        for (long key = 0; key < 1000; key++) {
+            map.put(key, 0);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            pool.submit(() -> {
+                for (long key = 0; key < 1000; key++) {
+                    map.addIfPresent(key, 1);
+                }
+            });
+        }
+        pool.shutdown();
+        assertThat(pool.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+
+        assertThat(map.size()).isEqualTo(1000);
+        map.forEach((key, value) -> assertThat(value).isEqualTo(8));
+        assertThat(map.get(5000)).isEqualTo(StripedLongIntMap.ABSENT);
+    }
+}
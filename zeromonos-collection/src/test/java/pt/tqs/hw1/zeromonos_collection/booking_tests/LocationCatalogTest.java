@@ -0,0 +1,41 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+
+import pt.tqs.hw1.zeromonos_collection.entity.MunicipalityEntry;
+import pt.tqs.hw1.zeromonos_collection.service.LocationCatalog;
+
+class LocationCatalogTest {
+
+    private final LocationCatalog catalog = new LocationCatalog(new ClassPathResource("locations/municipalities.csv"));
+
+    @Test
+    @DisplayName("The bundled dataset holds every district and municipality")
+    void testBundledDataset() {
+        assertThat(catalog.getDistricts()).hasSize(20).contains("Açores", "Madeira", "Évora");
+        assertThat(catalog.getMunicipalities()).hasSize(308);
+        assertThat(catalog.municipalitiesOf("aveiro")).hasSize(19);
+        assertThat(catalog.getEtag()).startsWith("\"").endsWith("\"");
+    }
+
+    @Test
+    @DisplayName("Lookups ignore case and accents and return canonical names")
+    void testFind() {
+        assertThat(catalog.find(null, "GUIMARAES")).contains(new MunicipalityEntry("Guimarães", "Braga"));
+        assertThat(catalog.find("evora", "evora")).contains(new MunicipalityEntry("Évora", "Évora"));
+        assertThat(catalog.find("Lisboa", "Porto")).isEmpty();
+        assertThat(catalog.find(null, "Springfield")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("A name shared by two districts needs the district to resolve")
+    void testAmbiguousName() {
+        assertThat(catalog.find(null, "Calheta")).isEmpty();
+        assertThat(catalog.find("Açores", "Calheta")).contains(new MunicipalityEntry("Calheta", "Açores"));
+        assertThat(catalog.municipalityName("calheta")).contains("Calheta");
+    }
+}
@@ -0,0 +1,78 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class LocationsControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    @WithMockUser(username = "bob@email.com", roles = {"CITIZEN"})
+    @DisplayName("GET /api/v1/locations/postal-codes/{postalCode} resolves district and municipality")
+    void testResolvePostalCode() throws Exception {
+        mockMvc.perform(get("/api/v1/locations/postal-codes/{postalCode}", "4700-123"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.district").value("Braga"))
+            .andExpect(jsonPath("$.municipality").value("Braga"));
+
+        mockMvc.perform(get("/api/v1/locations/postal-codes/{postalCode}", "0000-000"))
+            .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/api/v1/locations/postal-codes/{postalCode}", "47"))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "bob@email.com", roles = {"CITIZEN"})
+    @DisplayName("GET /api/v1/locations/postal-codes?prefix= suggests postal codes")
+    void testCompletePostalCode() throws Exception {
+        mockMvc.perform(get("/api/v1/locations/postal-codes").param("prefix", "47").param("limit", "2"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(2))
+            .andExpect(jsonPath("$[0].postalCode").value("4700"))
+            .andExpect(jsonPath("$[0].municipality").value("Braga"));
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/locations/districts is public and cacheable")
+    void testGetDistricts() throws Exception {
+        String etag = mockMvc.perform(get("/api/v1/locations/districts"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(20))
+            .andExpect(jsonPath("$[0]").value("Açores"))
+            .andExpect(header().string("Cache-Control", "max-age=604800, public"))
+            .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get("/api/v1/locations/districts").header("If-None-Match", etag))
+            .andExpect(status().isNotModified());
+    }
+
+    @Test
+    @DisplayName("GET /api/v1/locations/municipalities lists all of them or those of one district")
+    void testGetMunicipalities() throws Exception {
+        mockMvc.perform(get("/api/v1/locations/municipalities"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(308))
+            .andExpect(header().exists("ETag"));
+
+        mockMvc.perform(get("/api/v1/locations/municipalities").param("district", "viana do castelo"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.length()").value(10))
+            .andExpect(jsonPath("$[0].name").value("Arcos de Valdevez"))
+            .andExpect(jsonPath("$[0].district").value("Viana do Castelo"));
+    }
+}
@@ -0,0 +1,57 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Properties;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.CoreMigrationType;
+import org.flywaydb.core.api.MigrationInfo;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.support.PropertiesLoaderUtils;
+
+class MigrationBaselineTest {
+
+    private static final String URL = "jdbc:h2:mem:baseline;DB_CLOSE_DELAY=-1";
+
+    @Test
+    @DisplayName("A database created by ddl-auto before the migrations is baselined at V1 and upgraded")
+    void testBaselineExistingSchema() throws Exception {
+        // the tables ddl-auto=update left behind, with a booking, and no flyway history
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:db/migration/h2/V1__initial_schema.sql'");
+            statement.execute("insert into booking (district, municipality, village, postal_code, date, time, "
+                + "description, token, state, created_by) values ('Lisboa', 'Sintra', 'Colares', '2705-000', "
+                + "date '2030-01-07', time '10:00:00', 'old fridge', 'tok', 'RECEIVED', 'bob@email.com')");
+        }
+
+        Properties properties = PropertiesLoaderUtils.loadProperties(new ClassPathResource("application.properties"));
+        Flyway flyway = Flyway.configure()
+            .dataSource(URL, "sa", "")
+            .locations("classpath:db/migration/h2")
+            .baselineOnMigrate(Boolean.parseBoolean(properties.getProperty("spring.flyway.baseline-on-migrate")))
+            .baselineVersion(properties.getProperty("spring.flyway.baseline-version"))
+            .load();
+        flyway.migrate();
+
+        MigrationInfo[] applied = flyway.info().applied();
+        assertThat(applied[0].getType()).isEqualTo(CoreMigrationType.BASELINE);
+        assertThat(applied[0].getVersion().getVersion()).isEqualTo("1");
+        assertThat(Arrays.stream(applied).skip(1).map(info -> info.getVersion().getVersion()))
+            .containsExactly("2", "3", "4");
+
+        try (Connection connection = DriverManager.getConnection(URL, "sa", "");
+             Statement statement = connection.createStatement()) {
+            var rows = statement.executeQuery("select count(*) from booking where municipality_id is not null");
+            rows.next();
+            assertThat(rows.getInt(1)).isEqualTo(1);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.time.LocalTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.MediaType;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import pt.tqs.hw1.zeromonos_collection.entity.MunicipalityPolicy;
+import pt.tqs.hw1.zeromonos_collection.repository.MunicipalityPolicyRepository;
+import pt.tqs.hw1.zeromonos_collection.service.BookingPolicyService;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class PoliciesControllerTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private MunicipalityPolicyRepository municipalityPolicyRepository;
+
+    @Autowired
+    private BookingPolicyService bookingPolicyService;
+
+    private MunicipalityPolicy lisbon = MunicipalityPolicy.builder()
+        .dailyCapacity(200)
+        .slotCapacity(5)
+        .openTime(LocalTime.of(7, 0))
+        .closeTime(LocalTime.of(20, 0))
+        .slotMinutes(30)
+        .closedDays("sunday")
+        .build();
+
+    @BeforeEach
+    @AfterEach
+    void cleanDatabase() {
+        municipalityPolicyRepository.deleteAll();
+        bookingPolicyService.reload();
+    }
+
+    @Test
+    @WithMockUser(username = "bob@email.com", roles = {"CITIZEN"})
+    @DisplayName("GET /api/v1/policies/{municipality} falls back to the default policy")
+    void testGetDefaultPolicy() throws Exception {
+        mockMvc.perform(get("/api/v1/policies/{municipality}", "Lisboa"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.dailyCapacity").value(10))
+            .andExpect(jsonPath("$.slots.length()").value(9));
+    }
+
+    @Test
+    @WithMockUser(username = "staff@email.com", roles = {"STAFF"})
+    @DisplayName("PUT /api/v1/policies/{municipality} applies immediately")
+    void testUpdatePolicy() throws Exception {
+        mockMvc.perform(put("/api/v1/policies/{municipality}", "Lisboa")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(lisbon)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.closedDays").value("SUNDAY"));
+
+        mockMvc.perform(get("/api/v1/policies/{municipality}", "Lisboa"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.dailyCapacity").value(200))
+            .andExpect(jsonPath("$.slots.length()").value(26));
+    }
+
+    @Test
+    @WithMockUser(username = "staff@email.com", roles = {"STAFF"})
+    @DisplayName("PUT /api/v1/policies/{municipality} stores the policy under the catalog name")
+    void testUpdatePolicyCanonicalName() throws Exception {
+        mockMvc.perform(put("/api/v1/policies/{municipality}", "lisboa")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(lisbon)))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.municipality").value("Lisboa"));
+
+        assertThat(bookingPolicyService.policyFor("Lisboa").getDailyCapacity()).isEqualTo(200);
+        mockMvc.perform(get("/api/v1/policies/{municipality}", "LISBOA"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.dailyCapacity").value(200));
+    }
+
+    @Test
+    @WithMockUser(username = "staff@email.com", roles = {"STAFF"})
+    @DisplayName("Policies of unknown municipalities are rejected")
+    void testUnknownMunicipalityPolicy() throws Exception {
+        mockMvc.perform(put("/api/v1/policies/{municipality}", "Springfield")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(lisbon)))
+            .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/v1/policies/{municipality}", "Springfield"))
+            .andExpect(status().isBadRequest());
+
+        assertThat(municipalityPolicyRepository.count()).isZero();
+    }
+
+    @Test
+    @WithMockUser(username = "staff@email.com", roles = {"STAFF"})
+    @DisplayName("PUT /api/v1/policies/{municipality} rejects invalid hours")
+    void testUpdateInvalidPolicy() throws Exception {
+        lisbon.setCloseTime(LocalTime.of(6, 0));
+
+        mockMvc.perform(put("/api/v1/policies/{municipality}", "Lisboa")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(lisbon)))
+            .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    @WithMockUser(username = "bob@email.com", roles = {"CITIZEN"})
+    @DisplayName("PUT /api/v1/policies/{municipality} is staff only")
+    void testCitizenCannotUpdatePolicy() throws Exception {
+        mockMvc.perform(put("/api/v1/policies/{municipality}", "Lisboa")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(objectMapper.writeValueAsString(lisbon)))
+            .andExpect(status().isForbidden());
+    }
+}
@@ -0,0 +1,90 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.ClassPathResource;
+
+import pt.tqs.hw1.zeromonos_collection.entity.PostalCodeLocation;
+import pt.tqs.hw1.zeromonos_collection.service.PostalCodeService;
+
+class PostalCodeServiceTest {
+
+    private static final String DATASET = """
+        # comment
+        postal_code;district;municipality
+        1;Lisboa;Lisboa
+        1495;Lisboa;Oeiras
+        4700;Braga;Braga
+        4705;Braga;Braga
+        4710-057;Braga;Braga
+        4800;Braga;Guimarães
+        """;
+
+    private PostalCodeService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new PostalCodeService(new ByteArrayResource(DATASET.getBytes(StandardCharsets.UTF_8)), false);
+        service.load();
+    }
+
+    @Test
+    @DisplayName("The most specific entry covering a postal code wins")
+    void testResolve() {
+        assertThat(service.resolve("1100-148")).get()
+            .extracting(PostalCodeLocation::getMunicipality).isEqualTo("Lisboa");
+        assertThat(service.resolve("1495-001")).get()
+            .extracting(PostalCodeLocation::getMunicipality).isEqualTo("Oeiras");
+        assertThat(service.resolve("4800")).get()
+            .extracting(PostalCodeLocation::getDistrict).isEqualTo("Braga");
+        assertThat(service.resolve("4710-057")).contains(new PostalCodeLocation("4710-057", "Braga", "Braga"));
+        assertThat(service.resolve("9000-001")).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Malformed postal codes are rejected")
+    void testResolveMalformed() {
+        assertThrows(IllegalArgumentException.class, () -> service.resolve("47001"));
+        assertThrows(IllegalArgumentException.class, () -> service.resolve("abcd-123"));
+        assertThrows(IllegalArgumentException.class, () -> service.resolve(null));
+
+        assertThat(service.lookup("47001")).isEmpty();
+        assertThat(service.lookup(null)).isEmpty();
+        assertThat(service.lookup("4700-123")).get()
+            .extracting(PostalCodeLocation::getMunicipality).isEqualTo("Braga");
+    }
+
+    @Test
+    @DisplayName("Autocomplete lists entries under the prefix, or the entry that covers it")
+    void testComplete() {
+        assertThat(service.complete("47", 10))
+            .extracting(PostalCodeLocation::getPostalCode)
+            .containsExactly("4700", "4705", "4710-057");
+        assertThat(service.complete("47", 2)).hasSize(2);
+        assertThat(service.complete("4800-1", 10))
+            .containsExactly(new PostalCodeLocation("4800-1", "Braga", "Guimarães"));
+        assertThat(service.complete("9", 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("The bundled dataset loads and resolves")
+    void testBundledDataset() {
+        PostalCodeService bundled = new PostalCodeService(new ClassPathResource("postal-codes/cp4.csv"), false);
+        bundled.load();
+
+        assertThat(bundled.resolve("4450-001")).get()
+            .extracting(PostalCodeLocation::getMunicipality).isEqualTo("Matosinhos");
+        assertThat(bundled.resolve("1495-001")).get()
+            .extracting(PostalCodeLocation::getMunicipality).isEqualTo("Oeiras");
+        assertThat(bundled.resolve("8800-001")).get()
+            .extracting(PostalCodeLocation::getDistrict).isEqualTo("Faro");
+        assertThat(bundled.resolve("0000-000")).isEmpty();
+    }
+}
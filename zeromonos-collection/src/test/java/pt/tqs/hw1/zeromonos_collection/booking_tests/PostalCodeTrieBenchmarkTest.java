@@ -0,0 +1,52 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import lombok.extern.slf4j.Slf4j;
+import pt.tqs.hw1.zeromonos_collection.service.PostalCodeTrie;
+
+/**
+ * Footprint and lookup latency of {@link PostalCodeTrie} at the size of the full CTT
+ * list (roughly 200k CP7 codes).
+ * Run with {@code mvn test -Dbenchmarks=true -Dtest=PostalCodeTrieBenchmarkTest}.
+ */
+@Slf4j
+@EnabledIfSystemProperty(named = "benchmarks", matches = "true")
+class PostalCodeTrieBenchmarkTest {
+
+    private static final int CODES = 200_000;
+    private static final int WARMUP = 1_000_000;
+    private static final int ITERATIONS = 5_000_000;
+
+    @Test
+    @DisplayName("Benchmark postal code lookups.")
+    void benchmarkLookups() {
+        Random random = new Random(42);
+        String[] codes = new String[CODES];
+        PostalCodeTrie trie = new PostalCodeTrie();
+        for (int i = 0; i < CODES; i++) {
+            codes[i] = String.format("%04d%03d", 1000 + random.nextInt(9000), random.nextInt(1000));
+            trie.put(codes[i], i % 308); // one value per municipality
+        }
+
+        long checksum = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            checksum += trie.longestPrefix(codes[i % CODES]);
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            checksum += trie.longestPrefix(codes[i % CODES]);
+        }
+        long perLookup = (System.nanoTime() - start) / ITERATIONS;
+
+        log.info("Postal code trie: {} codes, {} nodes, {} KiB, {} ns per lookup (checksum {})",
+            CODES, trie.nodeCount(), trie.footprintBytes() / 1024, perLookup, checksum);
+        assertEquals((CODES - 1) % 308, trie.longestPrefix(codes[CODES - 1]));
+    }
+}
@@ -0,0 +1,97 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.Optional;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import pt.tqs.hw1.zeromonos_collection.entity.PublicBookingView;
+import pt.tqs.hw1.zeromonos_collection.entity.State;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.service.PublicBookingCache;
+import pt.tqs.hw1.zeromonos_collection.service.PublicBookingCache.CachedBooking;
+
+class PublicBookingCacheTest {
+
+    private BookingRepository bookingRepository;
+    private PublicBookingCache cache;
+
+    @BeforeEach
+    void setUp() {
+        bookingRepository = mock(BookingRepository.class);
+        ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        cache = new PublicBookingCache(bookingRepository, objectMapper, new SimpleMeterRegistry(), Duration.ofMinutes(10), 100);
+    }
+
+    @AfterEach
+    void clearSynchronization() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    @DisplayName("Hits are served from the stored bytes without a query")
+    void testHit() {
+        when(bookingRepository.findPublicViewByToken("tok")).thenReturn(Optional.of(view(State.RECEIVED)));
+
+        CachedBooking first = cache.get("tok").orElseThrow();
+        CachedBooking second = cache.get("tok").orElseThrow();
+
+        assertThat(second).isSameAs(first);
+        assertThat(new String(first.body(), StandardCharsets.UTF_8)).contains("\"state\":\"RECEIVED\"").doesNotContain("createdBy");
+        assertThat(first.etag()).startsWith("\"").endsWith("\"");
+        verify(bookingRepository, times(1)).findPublicViewByToken("tok");
+    }
+
+    @Test
+    @DisplayName("Unknown tokens are looked up again on the next request")
+    void testMissNotCached() {
+        when(bookingRepository.findPublicViewByToken("tok"))
+            .thenReturn(Optional.empty())
+            .thenReturn(Optional.of(view(State.RECEIVED)));
+
+        assertThat(cache.get("tok")).isEmpty();
+        assertThat(cache.get("tok")).isPresent();
+    }
+
+    @Test
+    @DisplayName("Eviction inside a transaction waits for the commit")
+    void testEvictAfterCommit() {
+        when(bookingRepository.findPublicViewByToken("tok"))
+            .thenReturn(Optional.of(view(State.RECEIVED)))
+            .thenReturn(Optional.of(view(State.ASSIGNED)));
+        String etag = cache.get("tok").orElseThrow().etag();
+
+        TransactionSynchronizationManager.initSynchronization();
+        cache.evictAfterCommit("tok");
+        assertThat(cache.get("tok").orElseThrow().etag()).isEqualTo(etag);
+
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(cache.get("tok").orElseThrow().etag()).isNotEqualTo(etag);
+    }
+
+    private static PublicBookingView view(State state) {
+        return new PublicBookingView("Lisboa", "Lisboa", "Sintra", "2710-000", LocalDate.of(2030, 1, 7),
+            LocalTime.of(10, 0), "old fridge", state);
+    }
+}
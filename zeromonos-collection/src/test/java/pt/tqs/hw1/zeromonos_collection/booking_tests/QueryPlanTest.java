@@ -0,0 +1,223 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.ClassUtils;
+
+import pt.tqs.hw1.zeromonos_collection.entity.BookingSearchCriteria;
+import pt.tqs.hw1.zeromonos_collection.entity.State;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingSpecifications;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingStateHistoryRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.DailyCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.LocationDictionary;
+import pt.tqs.hw1.zeromonos_collection.repository.SlotCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.UserRepository;
+
+/**
+ * Calls each repository query, records the SQL Hibernate sends with its bound
+ * parameters, and runs EXPLAIN for exactly that statement against the migrated
+ * schema, so changing a query or dropping an index fails the build. The booking
+ * table is filled and analyzed first: on an empty table H2 has no statistics to go
+ * by and settles ties between indexes by creation order.
+ */
+@DataJpaTest
+@Import(LocationDictionary.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class QueryPlanTest {
+
+    private record Recorded(String sql, List<Object> parameters) {}
+
+    private static final List<Recorded> RECORDED = new CopyOnWriteArrayList<>();
+
+    private static final LocalDate DATE = LocalDate.of(2030, 1, 7);
+    private static final LocalTime TIME = LocalTime.of(10, 0);
+
+    @TestConfiguration
+    static class RecordingDataSource {
+
+        @Bean
+        static BeanPostProcessor recordStatements() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    return bean instanceof DataSource dataSource ? recording(dataSource) : bean;
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private BookingRepository bookingRepository;
+
+    @Autowired
+    private BookingStateHistoryRepository bookingStateHistoryRepository;
+
+    @Autowired
+    private DailyCapacityRepository dailyCapacityRepository;
+
+    @Autowired
+    private SlotCapacityRepository slotCapacityRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // analyze commits, so the rows are written outside the test transaction and removed afterwards
+    @BeforeEach
+    void fillBookings() {
+        jdbcTemplate.update("""
+            insert into booking (district_id, municipality_id, village, postal_code, date, time,
+                                 description, token, state, created_by)
+            select m.district_id, m.id, 'village', '0000-000', date '2030-01-01' + mod(x, 90),
+                   time '08:00:00' + mod(x, 9) * interval '1' hour, 'item', 'plan-' || x, 'RECEIVED',
+                   'citizen' || mod(x, 500) || '@email.com'
+            from system_range(1, 5000)
+            join (select district_id, id, row_number() over (order by id, district_id) - 1 as n from municipality) m
+                on m.n = mod(x, 308)
+            """);
+        jdbcTemplate.execute("analyze");
+    }
+
+    @AfterEach
+    void removeBookings() {
+        jdbcTemplate.update("delete from booking where token like 'plan-%'");
+        jdbcTemplate.execute("analyze");
+    }
+
+    static Stream<Arguments> queries() {
+        BookingSearchCriteria dateRange = BookingSearchCriteria.builder().from(DATE).to(DATE.plusDays(13)).build();
+        return Stream.of(
+            query("countActiveByTime", t -> t.bookingRepository.countActiveByTime("Lisboa", DATE, State.CANCELED),
+                "IDX_BOOKING_MUNICIPALITY_DATE_TIME"),
+            query("countActiveByDateAndTime", t -> t.bookingRepository.countActiveByDateAndTime(
+                "Lisboa", DATE, DATE.plusDays(13), State.CANCELED), "IDX_BOOKING_MUNICIPALITY_DATE_TIME"),
+            query("countByMunicipalityAndDateAndStateNot", t -> t.bookingRepository
+                .countByMunicipalityAndDateAndStateNot("Lisboa", DATE, State.CANCELED), "IDX_BOOKING_MUNICIPALITY_DATE_TIME"),
+            query("countByMunicipalityAndDateAndTimeAndStateNot", t -> t.bookingRepository
+                .countByMunicipalityAndDateAndTimeAndStateNot("Lisboa", DATE, TIME, State.CANCELED), "IDX_BOOKING_MUNICIPALITY_DATE_TIME"),
+            query("findViews by date range", t -> t.bookingRepository.findViews(
+                BookingSpecifications.matching(dateRange, 0L), Limit.of(51)), "IDX_BOOKING_DATE"),
+            query("findViewsAfter", t -> t.bookingRepository.findViewsAfter(10L, Limit.of(51)), "PRIMARY_KEY"),
+            query("findViewsByMunicipalityAfter", t -> t.bookingRepository.findViewsByMunicipalityAfter(
+                "Lisboa", 10L, Limit.of(51)), "IDX_BOOKING_MUNICIPALITY_ID"),
+            query("findViewsByDistrictAfter", t -> t.bookingRepository.findViewsByDistrictAfter(
+                "Lisboa", 10L, Limit.of(51)), "IDX_BOOKING_DISTRICT_ID"),
+            query("findViewsByCreatedByAfter", t -> t.bookingRepository.findViewsByCreatedByAfter(
+                "bob@email.com", 10L, Limit.of(51)), "IDX_BOOKING_CREATED_BY_ID"),
+            query("findPublicViewByToken", t -> t.bookingRepository.findPublicViewByToken("tok"), "CONSTRAINT_"),
+            query("findByBookingIdOrderByTimestampAsc", t -> t.bookingStateHistoryRepository
+                .findByBookingIdOrderByTimestampAsc(1L), "IDX_HISTORY_BOOKING_ID_TIMESTAMP"),
+            query("findChangesAfter", t -> t.bookingStateHistoryRepository.findChangesAfter(10L, Limit.of(101)), "PRIMARY_KEY"),
+            query("daily capacity findByDateGreaterThanEqual", t -> t.dailyCapacityRepository.findByDateGreaterThanEqual(DATE),
+                "IDX_DAILY_CAPACITY_DATE"),
+            query("daily capacity findByMunicipalityInAndDateBetween", t -> t.dailyCapacityRepository
+                .findByMunicipalityInAndDateBetween(List.of("Lisboa", "Sintra"), DATE, DATE.plusDays(13)),
+                "UK_DAILY_CAPACITY_MUNICIPALITY_DATE"),
+            query("daily capacity reserve", t -> t.dailyCapacityRepository.reserve("Lisboa", DATE, 10),
+                "UK_DAILY_CAPACITY_MUNICIPALITY_DATE"),
+            query("slot capacity reserve", t -> t.slotCapacityRepository.reserve("Lisboa", DATE, TIME, 1),
+                "UK_SLOT_CAPACITY_MUNICIPALITY_DATE_TIME"),
+            query("users findByEmail", t -> t.userRepository.findByEmail("bob@email.com"), "UK_USERS_EMAIL")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("queries")
+    @DisplayName("Repository queries are served by an index")
+    void testQueryUsesIndex(String query, Consumer<QueryPlanTest> call, String index) {
+        RECORDED.clear();
+        call.accept(this);
+        List<Recorded> sent = List.copyOf(RECORDED);
+
+        assertThat(sent).as(query).hasSize(1);
+        Recorded statement = sent.get(0);
+        String plan = jdbcTemplate.queryForObject("explain " + statement.sql(), String.class, statement.parameters().toArray());
+
+        assertThat(plan).as(query).containsIgnoringCase(index).doesNotContainIgnoringCase("tableScan");
+    }
+
+    private static Arguments query(String name, Consumer<QueryPlanTest> call, String index) {
+        return Arguments.of(name, call, index);
+    }
+
+    // a DataSource whose prepared statements record their SQL and parameters when executed
+    private static DataSource recording(DataSource dataSource) {
+        return wrap(dataSource, (proxy, method, args) -> {
+            Object result = invoke(method, dataSource, args);
+            return result instanceof Connection connection ? recording(connection) : result;
+        });
+    }
+
+    private static Connection recording(Connection connection) {
+        return wrap(connection, (proxy, method, args) -> {
+            Object result = invoke(method, connection, args);
+            return method.getName().equals("prepareStatement") && result instanceof PreparedStatement statement
+                ? recording(statement, (String) args[0])
+                : result;
+        });
+    }
+
+    private static PreparedStatement recording(PreparedStatement statement, String sql) {
+        Map<Integer, Object> parameters = new TreeMap<>();
+        return wrap(statement, (proxy, method, args) -> {
+            String name = method.getName();
+            if (name.startsWith("set") && args != null && args.length >= 2 && args[0] instanceof Integer index) {
+                parameters.put(index, name.equals("setNull") ? null : args[1]);
+            } else if (name.startsWith("execute") && (args == null || args.length == 0)) {
+                RECORDED.add(new Recorded(sql, new ArrayList<>(parameters.values())));
+            }
+            return invoke(method, statement, args);
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T wrap(T target, InvocationHandler handler) {
+        Class<?>[] interfaces = ClassUtils.getAllInterfacesForClass(target.getClass());
+        return (T) Proxy.newProxyInstance(QueryPlanTest.class.getClassLoader(), interfaces, handler);
+    }
+
+    private static Object invoke(Method method, Object target, Object[] args) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            throw e.getCause();
+        }
+    }
+}
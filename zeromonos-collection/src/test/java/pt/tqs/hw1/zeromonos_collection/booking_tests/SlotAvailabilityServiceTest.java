@@ -0,0 +1,331 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import pt.tqs.hw1.zeromonos_collection.entity.BookingPolicy;
+import pt.tqs.hw1.zeromonos_collection.entity.DailyCapacity;
+import pt.tqs.hw1.zeromonos_collection.entity.DayAvailability;
+import pt.tqs.hw1.zeromonos_collection.entity.SlotHold;
+import pt.tqs.hw1.zeromonos_collection.entity.SlotSuggestion;
+import pt.tqs.hw1.zeromonos_collection.entity.State;
+import pt.tqs.hw1.zeromonos_collection.repository.BookingRepository;
+import pt.tqs.hw1.zeromonos_collection.repository.DailyCapacityRepository;
+import pt.tqs.hw1.zeromonos_collection.service.BookingPolicyService;
+import pt.tqs.hw1.zeromonos_collection.service.LocationCatalog;
+import pt.tqs.hw1.zeromonos_collection.service.SlotAvailabilityService;
+import pt.tqs.hw1.zeromonos_collection.service.SlotHoldService;
+
+@ExtendWith(MockitoExtension.class)
+class SlotAvailabilityServiceTest {
+
+    @Mock
+    private BookingRepository bookingRepository;
+
+    @Mock
+    private DailyCapacityRepository dailyCapacityRepository;
+
+    @Mock
+    private BookingPolicyService bookingPolicyService;
+
+    private SlotHoldService slotHoldService;
+    private SlotAvailabilityService service;
+    private LocalDate monday = LocalDate.now().with(TemporalAdjusters.next(DayOfWeek.MONDAY));
+
+    @BeforeEach
+    void setUp() {
+        slotHoldService = new SlotHoldService(Duration.ofMinutes(2), 3);
+        service = new SlotAvailabilityService(bookingRepository, dailyCapacityRepository, bookingPolicyService, slotHoldService,
+            new LocationCatalog(new ClassPathResource("locations/municipalities.csv")), new SimpleMeterRegistry(),
+            Duration.ofMinutes(10), 100, 30, 7);
+    }
+
+    @Test
+    @DisplayName("Loads a day once and then answers from memory")
+    void testLoadOnce() {
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(BookingPolicy.standard());
+        when(bookingRepository.countActiveByTime("Lisbon", monday, State.CANCELED)).thenReturn(List.of(
+            new Object[] {LocalTime.of(9, 0), 1L},
+            new Object[] {LocalTime.of(12, 0), 1L}));
+
+        List<LocalTime> first = service.getAvailableTimes("Lisbon", monday);
+        List<LocalTime> second = service.getAvailableTimes("Lisbon", monday);
+
+        assertThat(first).hasSize(7).doesNotContain(LocalTime.of(9, 0), LocalTime.of(12, 0));
+        assertThat(second).isSameAs(first);
+        verify(bookingRepository, times(1)).countActiveByTime("Lisbon", monday, State.CANCELED);
+    }
+
+    @Test
+    @DisplayName("Committed reservations and releases are applied without a reload")
+    void testChangesApplied() {
+        LocalTime ten = LocalTime.of(10, 0);
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(BookingPolicy.standard());
+        when(bookingRepository.countActiveByTime("Lisbon", monday, State.CANCELED)).thenReturn(List.of());
+        assertThat(service.getAvailableTimes("Lisbon", monday)).contains(ten);
+
+        complete(change(ten, 1), TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(service.getAvailableTimes("Lisbon", monday)).hasSize(8).doesNotContain(ten);
+
+        complete(change(ten, 1), TransactionSynchronization.STATUS_ROLLED_BACK);
+        complete(change(ten, -1), TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(service.getAvailableTimes("Lisbon", monday)).hasSize(9).contains(ten);
+        verify(bookingRepository, times(1)).countActiveByTime("Lisbon", monday, State.CANCELED);
+    }
+
+    @Test
+    @DisplayName("A load that may already include a change still to be applied is not kept")
+    void testLoadWithPendingChange() {
+        LocalTime ten = LocalTime.of(10, 0);
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(new BookingPolicy(10, 2, LocalTime.of(8, 0),
+            LocalTime.of(12, 0), 60, EnumSet.noneOf(DayOfWeek.class)));
+
+        // the booking has committed, so the query counts it, but its delta has not been applied yet
+        List<TransactionSynchronization> booking = change(ten, 1);
+        when(bookingRepository.countActiveByTime("Lisbon", monday, State.CANCELED)).thenReturn(List.<Object[]>of(
+            new Object[] {ten, 1L}));
+        assertThat(service.getAvailableTimes("Lisbon", monday)).contains(ten);
+
+        // kept, the day would now count the booking twice and hide the slot
+        complete(booking, TransactionSynchronization.STATUS_COMMITTED);
+        assertThat(service.getAvailableTimes("Lisbon", monday)).contains(ten);
+        assertThat(service.getAvailableTimes("Lisbon", monday)).contains(ten);
+        verify(bookingRepository, times(2)).countActiveByTime("Lisbon", monday, State.CANCELED);
+    }
+
+    @Test
+    @DisplayName("A change registered while the day is loading is not lost")
+    void testChangeDuringLoad() throws Exception {
+        LocalTime ten = LocalTime.of(10, 0);
+        CountDownLatch querying = new CountDownLatch(1);
+        CountDownLatch registered = new CountDownLatch(1);
+        AtomicReference<List<Object[]>> rows = new AtomicReference<>(List.of());
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(BookingPolicy.standard());
+        when(bookingRepository.countActiveByTime("Lisbon", monday, State.CANCELED)).thenAnswer(invocation -> {
+            List<Object[]> before = rows.get();
+            querying.countDown();
+            registered.await(5, TimeUnit.SECONDS);
+            return before;
+        });
+
+        ExecutorService pool = Executors.newSingleThreadExecutor();
+        Future<List<LocalTime>> reader = pool.submit(() -> service.getAvailableTimes("Lisbon", monday));
+        assertThat(querying.await(5, TimeUnit.SECONDS)).isTrue();
+
+        // the booking reserves after the loader read its rows and commits while it is still loading
+        List<TransactionSynchronization> booking = change(ten, 1);
+        rows.set(List.<Object[]>of(new Object[] {ten, 1L}));
+        registered.countDown();
+        assertThat(reader.get(5, TimeUnit.SECONDS)).contains(ten);
+        complete(booking, TransactionSynchronization.STATUS_COMMITTED);
+        pool.shutdown();
+
+        assertThat(service.getAvailableTimes("Lisbon", monday)).doesNotContain(ten);
+        verify(bookingRepository, times(2)).countActiveByTime("Lisbon", monday, State.CANCELED);
+    }
+
+    @Test
+    @DisplayName("A hold keeps its spot when the day is reloaded between place and release")
+    void testHoldSurvivesReload() {
+        BookingPolicy twoPerSlot = new BookingPolicy(10, 2, LocalTime.of(8, 0), LocalTime.of(12, 0), 60,
+            EnumSet.noneOf(DayOfWeek.class));
+        LocalTime ten = LocalTime.of(10, 0);
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(twoPerSlot);
+        when(bookingRepository.countActiveByTime("Lisbon", monday, State.CANCELED)).thenReturn(List.<Object[]>of(
+            new Object[] {ten, 1L}));
+        when(bookingRepository.countActiveByDateAndTime("Lisbon", monday, monday, State.CANCELED)).thenReturn(List.<Object[]>of(
+            new Object[] {monday, ten, 1L}));
+        assertThat(service.getAvailableTimes("Lisbon", monday)).contains(ten);
+
+        SlotHold hold = slotHoldService.place("bob@email.com", "Lisbon", monday, ten, 1, 10, 1, 2);
+        assertThat(service.getAvailableTimes("Lisbon", monday)).doesNotContain(ten);
+
+        service.invalidateAll();
+        assertThat(service.getAvailableTimes("Lisbon", monday)).doesNotContain(ten);
+        assertThat(service.getAvailability("Lisbon", monday, monday).get(0).getRemainingCapacity()).isEqualTo(8);
+
+        slotHoldService.release(hold.getId());
+        assertThat(service.getAvailableTimes("Lisbon", monday)).contains(ten);
+        service.invalidateAll();
+        assertThat(service.getAvailableTimes("Lisbon", monday)).contains(ten);
+    }
+
+    @Test
+    @DisplayName("A hold converted into a booking leaves the slot taken")
+    void testHoldConversion() {
+        LocalTime ten = LocalTime.of(10, 0);
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(BookingPolicy.standard());
+        when(bookingRepository.countActiveByTime("Lisbon", monday, State.CANCELED)).thenReturn(List.of());
+        SlotHold hold = slotHoldService.place("bob@email.com", "Lisbon", monday, ten, 0, 10, 0, 1);
+        assertThat(service.getAvailableTimes("Lisbon", monday)).doesNotContain(ten);
+
+        // the booking commits, then the hold it came from is released
+        complete(change(ten, 1), TransactionSynchronization.STATUS_COMMITTED);
+        slotHoldService.release(hold.getId());
+
+        assertThat(service.getAvailableTimes("Lisbon", monday)).doesNotContain(ten);
+    }
+
+    @Test
+    @DisplayName("Policy hours, slot length, capacity and closed days are applied")
+    void testPolicy() {
+        BookingPolicy lisbon = new BookingPolicy(50, 2, LocalTime.of(7, 0), LocalTime.of(9, 0), 30,
+            EnumSet.of(DayOfWeek.MONDAY));
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(lisbon);
+        when(bookingRepository.countActiveByTime("Lisbon", monday.plusDays(1), State.CANCELED)).thenReturn(List.<Object[]>of(
+            new Object[] {LocalTime.of(7, 30), 2L},
+            new Object[] {LocalTime.of(8, 0), 1L}));
+
+        assertThat(service.getAvailableTimes("Lisbon", monday)).isEmpty();
+        assertThat(service.getAvailableTimes("Lisbon", monday.plusDays(1))).containsExactly(
+            LocalTime.of(7, 0), LocalTime.of(8, 0), LocalTime.of(8, 30));
+        verify(bookingRepository, never()).countActiveByTime("Lisbon", monday, State.CANCELED);
+    }
+
+    @Test
+    @DisplayName("A changed policy reloads the cached day")
+    void testPolicyChangeReloads() {
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(BookingPolicy.standard());
+        when(bookingRepository.countActiveByTime("Lisbon", monday, State.CANCELED)).thenReturn(List.of());
+        assertThat(service.getAvailableTimes("Lisbon", monday)).hasSize(9);
+
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(new BookingPolicy(10, 1,
+            LocalTime.of(8, 0), LocalTime.of(10, 0), 60, EnumSet.noneOf(DayOfWeek.class)));
+
+        assertThat(service.getAvailableTimes("Lisbon", monday)).containsExactly(LocalTime.of(8, 0), LocalTime.of(9, 0));
+        verify(bookingRepository, times(2)).countActiveByTime("Lisbon", monday, State.CANCELED);
+    }
+
+    @Test
+    @DisplayName("A range is answered by one aggregate query and skips closed days")
+    void testRange() {
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(BookingPolicy.standard());
+        LocalDate friday = monday.plusDays(4);
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {monday, LocalTime.of(9, 0), 1L});
+        for (int hour = 8; hour < 17; hour++) {
+            rows.add(new Object[] {friday, LocalTime.of(hour, 0), 1L});
+        }
+        rows.add(new Object[] {friday, LocalTime.of(17, 0), 1L});
+        when(bookingRepository.countActiveByDateAndTime("Lisbon", monday, monday.plusDays(8), State.CANCELED)).thenReturn(rows);
+
+        List<DayAvailability> days = service.getAvailability("Lisbon", monday, monday.plusDays(8));
+
+        // Mon-Fri, then Mon and Tue of the next week
+        assertThat(days).extracting(DayAvailability::getDate).doesNotContain(monday.plusDays(5), monday.plusDays(6)).hasSize(7);
+        assertThat(days.get(0).getRemainingCapacity()).isEqualTo(9);
+        assertThat(days.get(0).getAvailableTimes()).hasSize(8).doesNotContain(LocalTime.of(9, 0));
+        assertThat(days.get(1).getAvailableTimes()).hasSize(9);
+        assertThat(days.get(4).getRemainingCapacity()).isZero();
+        assertThat(days.get(4).getAvailableTimes()).isEmpty();
+        verify(bookingRepository, times(1)).countActiveByDateAndTime("Lisbon", monday, monday.plusDays(8), State.CANCELED);
+    }
+
+    @Test
+    @DisplayName("Ranges that are reversed or too long are rejected")
+    void testInvalidRange() {
+        assertThrows(IllegalArgumentException.class, () -> service.getAvailability("Lisbon", monday, monday.minusDays(1)));
+        assertThrows(IllegalArgumentException.class, () -> service.getAvailability("Lisbon", monday, monday.plusDays(100)));
+    }
+
+    @Test
+    @DisplayName("A range may span exactly the maximum number of days")
+    void testRangeBoundary() {
+        when(bookingPolicyService.policyFor("Lisbon")).thenReturn(BookingPolicy.standard());
+        LocalDate last = monday.plusDays(SlotAvailabilityService.MAX_RANGE_DAYS - 1L);
+
+        assertThat(service.getAvailability("Lisbon", monday, last)).isNotEmpty();
+        assertThrows(IllegalArgumentException.class, () -> service.getAvailability("Lisbon", monday, last.plusDays(1)));
+    }
+
+    @Test
+    @DisplayName("Next available slots come from the capacity ledger, reading only partially booked days")
+    void testFindNextAvailable() {
+        // open one day a week, never today, so the first window holds exactly one open day
+        LocalDate open = LocalDate.now().plusDays(2);
+        BookingPolicy oneDay = new BookingPolicy(10, 1, LocalTime.of(8, 0), LocalTime.of(10, 0), 60,
+            EnumSet.complementOf(EnumSet.of(open.getDayOfWeek())));
+        when(bookingPolicyService.policyFor(anyString())).thenReturn(oneDay);
+        when(dailyCapacityRepository.findByMunicipalityInAndDateBetween(any(), any(), any())).thenReturn(List.of(
+            DailyCapacity.builder().municipality("Lisboa").date(open).used(1).build(),
+            DailyCapacity.builder().municipality("Amadora").date(open).used(10).build()));
+        when(bookingRepository.countActiveByTime("Lisboa", open, State.CANCELED)).thenReturn(List.<Object[]>of(
+            new Object[] {LocalTime.of(8, 0), 1L}));
+
+        List<SlotSuggestion> slots = service.findNextAvailable("Lisboa", "Lisboa", 20);
+
+        // municipalities of the district without any booking are suggested as well, the full one is not
+        assertThat(slots).hasSize(20)
+            .contains(new SlotSuggestion("Alenquer", open, LocalTime.of(8, 0)), new SlotSuggestion("Lisboa", open, LocalTime.of(9, 0)))
+            .doesNotContain(new SlotSuggestion("Lisboa", open, LocalTime.of(8, 0)))
+            .noneMatch(slot -> slot.getMunicipality().equals("Amadora"));
+        assertThat(slots.subList(0, 14)).allMatch(slot -> slot.getTime().equals(LocalTime.of(8, 0)));
+        // one ledger query for the window, and a slot read only for the partially booked day
+        verify(dailyCapacityRepository, times(1)).findByMunicipalityInAndDateBetween(any(), any(), any());
+        verify(bookingRepository, times(1)).countActiveByTime(anyString(), any(), any());
+        verify(bookingRepository, never()).countActiveByDateAndTime(anyString(), any(), any(), any());
+    }
+
+    @Test
+    @DisplayName("Next available slots reject unknown districts and skip slots already past")
+    void testFindNextAvailableBounds() {
+        assertThrows(IllegalArgumentException.class, () -> service.findNextAvailable("Lisboa", "Atlantis", 3));
+
+        LocalDate today = LocalDate.now();
+        when(bookingPolicyService.policyFor("Lisboa")).thenReturn(new BookingPolicy(100, 1, LocalTime.MIDNIGHT,
+            LocalTime.of(23, 0), 60, EnumSet.noneOf(DayOfWeek.class)));
+
+        LocalTime before = LocalTime.now();
+        List<SlotSuggestion> slots = service.findNextAvailable("Lisboa", null, 20);
+
+        assertThat(slots).hasSize(20).doesNotContain(new SlotSuggestion("Lisboa", today, LocalTime.MIDNIGHT));
+        assertThat(slots).allMatch(slot -> slot.getDate().isAfter(today) || slot.getTime().isAfter(before));
+    }
+
+    // registers a slot change as if inside a transaction, returning what its completion runs
+    private List<TransactionSynchronization> change(LocalTime time, int delta) {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            service.onSlotChanged("Lisbon", monday, time, delta);
+            return TransactionSynchronizationManager.getSynchronizations();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    private void complete(List<TransactionSynchronization> transaction, int status) {
+        transaction.forEach(synchronization -> synchronization.afterCompletion(status));
+    }
+}
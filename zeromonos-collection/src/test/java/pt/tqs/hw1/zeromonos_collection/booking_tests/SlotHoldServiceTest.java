@@ -0,0 +1,91 @@
+package pt.tqs.hw1.zeromonos_collection.booking_tests;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import pt.tqs.hw1.zeromonos_collection.entity.SlotHold;
+import pt.tqs.hw1.zeromonos_collection.service.HashedTimingWheel;
+import pt.tqs.hw1.zeromonos_collection.service.SlotHoldService;
+
+class SlotHoldServiceTest {
+
+    private SlotHoldService service;
+    private LocalDate date = LocalDate.now().plusDays(3);
+    private LocalTime ten = LocalTime.of(10, 0);
+
+    @BeforeEach
+    void setUp() {
+        service = new SlotHoldService(Duration.ofMinutes(2), 2);
+    }
+
+    @Test
+    @DisplayName("Holds count against the slot capacity until released")
+    void testHoldsUseCapacity() {
+        SlotHold first = service.place("bob@email.com", "Lisbon", date, ten, 0, 10, 0, 1);
+
+        assertThrows(IllegalArgumentException.class,
+            () -> service.place("alice@email.com", "Lisbon", date, ten, 0, 10, 0, 1));
+        assertThat(service.heldForSlot("Lisbon", date, ten)).isEqualTo(1);
+        assertThat(service.heldForDay("Lisbon", date)).isEqualTo(1);
+
+        assertThat(service.release(first.getId())).isTrue();
+        assertThat(service.release(first.getId())).isFalse();
+        assertThat(service.heldForSlot("Lisbon", date, ten)).isZero();
+        assertThat(service.place("alice@email.com", "Lisbon", date, ten, 0, 10, 0, 1)).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Committed bookings and the per-user limit are respected")
+    void testLimits() {
+        assertThrows(IllegalArgumentException.class,
+            () -> service.place("bob@email.com", "Lisbon", date, ten, 10, 10, 0, 1));
+
+        service.place("bob@email.com", "Lisbon", date, LocalTime.of(8, 0), 0, 10, 0, 1);
+        service.place("bob@email.com", "Lisbon", date, LocalTime.of(9, 0), 0, 10, 0, 1);
+        Exception e = assertThrows(IllegalArgumentException.class,
+            () -> service.place("bob@email.com", "Lisbon", date, ten, 0, 10, 0, 1));
+        assertThat(e.getMessage()).isEqualTo("Too many active holds, book or release one first.");
+    }
+
+    @Test
+    @DisplayName("Only the owner finds a hold")
+    void testFindByOwner() {
+        SlotHold hold = service.place("bob@email.com", "Lisbon", date, ten, 0, 10, 0, 1);
+
+        assertThat(service.find(hold.getId(), "bob@email.com")).isSameAs(hold);
+        assertThat(service.find(hold.getId(), "alice@email.com")).isNull();
+    }
+
+    @Test
+    @DisplayName("Timing wheel fires timeouts on their tick, including later turns")
+    void testTimingWheel() {
+        HashedTimingWheel<String> wheel = new HashedTimingWheel<>(1000, 8, 0);
+        List<String> fired = new ArrayList<>();
+        wheel.schedule("a", 2_500);
+        wheel.schedule("b", 11_000); // same bucket as a tick of the first turn
+
+        wheel.advance(2_999, fired::add);
+        assertThat(fired).isEmpty();
+
+        wheel.advance(3_000, fired::add);
+        assertThat(fired).containsExactly("a");
+
+        wheel.advance(10_999, fired::add);
+        assertThat(fired).containsExactly("a");
+        assertThat(wheel.size()).isEqualTo(1);
+
+        wheel.advance(11_000, fired::add);
+        assertThat(fired).containsExactly("a", "b");
+        assertThat(wheel.size()).isZero();
+    }
+}